@@ -31,6 +31,13 @@ CREATE TABLE IF NOT EXISTS products (
     order_id UUID REFERENCES orders(order_id) ON DELETE CASCADE -- Внешний ключ с каскадным удалением
 );
 
+-- Частичные индексы по неудалённым заказам для выборок администратора (постранично по курсору).
+-- Удалённые заказы в индексы не попадают, поэтому фильтр по статусу и диапазону цен
+-- выполняется сканированием диапазона индекса, а не всей таблицы
+CREATE INDEX IF NOT EXISTS idx_orders_status_price ON orders (status, total_price, order_id) WHERE NOT deleted; -- Статус + цена, сортировка по цене
+CREATE INDEX IF NOT EXISTS idx_orders_status_id ON orders (status, order_id) WHERE NOT deleted; -- Статус, сортировка по ID
+CREATE INDEX IF NOT EXISTS idx_orders_price ON orders (total_price, order_id) WHERE NOT deleted; -- Диапазон цен без статуса, сортировка по цене
+
 -- Создаем таблицу roles
 CREATE TABLE IF NOT EXISTS roles (
     id BIGSERIAL PRIMARY KEY, -- Уникальный идентификатор роли
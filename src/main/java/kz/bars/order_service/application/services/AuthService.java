@@ -5,20 +5,16 @@ import kz.bars.order_service.domain.models.Role;
 import kz.bars.order_service.domain.models.User;
 import kz.bars.order_service.domain.repositories.RoleRepository;
 import kz.bars.order_service.domain.repositories.UserRepository;
-import kz.bars.order_service.infrastructure.security.CustomUserDetailsService;
+import kz.bars.order_service.infrastructure.cache.UserCache;
 import kz.bars.order_service.infrastructure.security.JwtTokenProvider;
+import kz.bars.order_service.infrastructure.security.PasswordHashingService;
+import kz.bars.order_service.infrastructure.security.TokenBlacklist;
+import kz.bars.order_service.infrastructure.security.VerifiedToken;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Set;
-import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
@@ -26,10 +22,10 @@ public class AuthService {
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
-    private final PasswordEncoder passwordEncoder;  // Кодировщик паролей
+    private final UserCache userCache; // Локальный кэш пользователей и ролей
+    private final PasswordHashingService passwordHashingService; // Хеширование паролей в отдельном пуле потоков
     private final JwtTokenProvider jwtTokenProvider;    // Провайдер JWT токенов
-    private final CustomUserDetailsService customUserDetailsService; // Сервис для загрузки данных пользователя
-    private final RedisTemplate<String, String> tokenRedisTemplate; // Хранилище для недействительных токенов
+    private final TokenBlacklist tokenBlacklist; // Черный список недействительных токенов
 
     /**
      * Аутентифицирует пользователя и генерирует JWT токен.
@@ -40,24 +36,19 @@ public class AuthService {
      * @throws BadCredentialsException если логин или пароль неверные
      */
     public String authenticate(String username, String password) {
-        // Загружаем данные пользователя через CustomUserDetailsService
-        UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
+        // Загружаем пользователя вместе с ролями одним запросом
+        User user = userRepository.findWithRolesByUsername(username)
+                .orElseThrow(() -> new BadCredentialsException("Invalid credentials"));
 
-        // Проверяем пароль
-        if (!passwordEncoder.matches(password, userDetails.getPassword())) {
+        // Проверяем, что пользователь активен, и сверяем пароль
+        if (!user.isEnabled() || !passwordHashingService.matches(password, user.getPassword())) {
             throw new BadCredentialsException("Invalid credentials");
         }
 
-        // Создаём объект Authentication и устанавливаем его в SecurityContext
-        UsernamePasswordAuthenticationToken authentication =
-                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-        SecurityContextHolder.getContext().setAuthentication(authentication);
+        // Прогреваем кэш пользователей: последующие запросы с токеном не обратятся к БД
+        userCache.put(user);
 
-        // Если нужен доступ к сущности User
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-
-        // Генерация JWT токена на основе сущности User
+        // Генерация JWT токена на основе загруженной сущности User (API stateless, SecurityContext не нужен)
         return jwtTokenProvider.generateToken(user);
     }
 
@@ -83,26 +74,27 @@ public class AuthService {
         // Создаём нового пользователя
         User user = new User();
         user.setUsername(request.getUsername());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
         user.setEmail(request.getEmail());
         user.setEnabled(true);
         user.setRoles(Set.of(userRole));
 
         userRepository.save(user);
+
+        // Удаляем возможную устаревшую запись о пользователе из кэша
+        userCache.evict(user.getUsername());
     }
 
     /**
      * Удаляет JWT токен, добавляя его в список недействительных (черный список).
      *
-     * @param token JWT токен, который необходимо сделать недействительным
+     * @param verifiedToken проверенный JWT токен, который необходимо сделать недействительным
      * @throws IllegalArgumentException если токен недействителен
      */
-    public void logout(String token) {
-        if (jwtTokenProvider.validateToken(token)) {
-            long expiration = jwtTokenProvider.getExpiration(token);
-            tokenRedisTemplate.opsForValue().set("tokens::" + token, "invalid", expiration, TimeUnit.MILLISECONDS);
-        } else {
+    public void logout(VerifiedToken verifiedToken) {
+        if (verifiedToken == null) {
             throw new IllegalArgumentException("Invalid token.");
         }
+        tokenBlacklist.revoke(verifiedToken);
     }
 }
@@ -0,0 +1,170 @@
+package kz.bars.order_service.application.services;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import kz.bars.order_service.domain.models.Order;
+import kz.bars.order_service.domain.repositories.OrderRepository;
+import kz.bars.order_service.infrastructure.cache.OrderCacheKeys;
+import kz.bars.order_service.infrastructure.exception.ApiException;
+import kz.bars.order_service.infrastructure.metrics.CustomMetrics;
+import kz.bars.order_service.presentation.dto.OrderBatchItemResponse;
+import kz.bars.order_service.presentation.dto.OrderBatchRequest;
+import kz.bars.order_service.presentation.dto.OrderBatchResponse;
+import kz.bars.order_service.presentation.dto.OrderRequest;
+import kz.bars.order_service.presentation.dto.ProductRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Пакетное создание заказов.
+ * Каждый заказ проверяется отдельно: некорректные заказы отклоняются с описанием ошибок,
+ * остальные сохраняются в одной транзакции. ID заказов и продуктов генерируются на стороне приложения,
+ * поэтому Hibernate отправляет INSERT пакетами JDBC (hibernate.jdbc.batch_size),
+ * а hibernate.order_inserts группирует вставки заказов и продуктов по таблицам.
+ * Контекст персистентности сбрасывается и очищается после каждого пакета,
+ * чтобы память не росла с размером запроса.
+ */
+@Service
+@SuppressWarnings("unused") // Подавляет предупреждения о неиспользуемых методах
+public class OrderBatchService {
+
+    /**
+     * Максимальное количество заказов в одном запросе.
+     */
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private final OrderRepository orderRepository;
+    private final OrderService orderService;
+    private final UserService userService;
+    private final OrderCacheKeys orderCacheKeys;
+    private final CustomMetrics customMetrics;
+    private final Validator validator;
+    private final int jdbcBatchSize; // Размер пакета JDBC, после которого сбрасывается контекст персистентности
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Конструктор сервиса пакетного создания заказов.
+     *
+     * @param orderRepository репозиторий заказов
+     * @param orderService    сервис заказов (преобразование запросов и ответов)
+     * @param userService     сервис пользователей
+     * @param orderCacheKeys  ключи и версии кэшированных выборок
+     * @param customMetrics   метрики операций с заказами
+     * @param validator       валидатор Bean Validation
+     * @param jdbcBatchSize   размер пакета JDBC
+     */
+    public OrderBatchService(OrderRepository orderRepository,
+                             OrderService orderService,
+                             UserService userService,
+                             OrderCacheKeys orderCacheKeys,
+                             CustomMetrics customMetrics,
+                             Validator validator,
+                             @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int jdbcBatchSize) {
+        this.orderRepository = orderRepository;
+        this.orderService = orderService;
+        this.userService = userService;
+        this.orderCacheKeys = orderCacheKeys;
+        this.customMetrics = customMetrics;
+        this.validator = validator;
+        this.jdbcBatchSize = Math.max(1, jdbcBatchSize);
+    }
+
+    /**
+     * Проверяет заказы пакета и сохраняет корректные от имени текущего пользователя.
+     * Выборки со статусом новых заказов инвалидируются один раз после фиксации транзакции.
+     * Каждый созданный заказ увеличивает счетчик успешных операций, каждый отклонённый - неудачных.
+     *
+     * @param request пакет заказов
+     * @return результаты по каждому заказу в порядке запроса
+     */
+    @Transactional
+    public OrderBatchResponse createOrders(OrderBatchRequest request) {
+        // Получаем имя текущего пользователя
+        String currentUser = userService.getCurrentUsername();
+        if (currentUser == null) {
+            throw new IllegalStateException("User is not authenticated");
+        }
+
+        // Проверяем размер пакета
+        List<OrderRequest> orderRequests = request != null ? request.getOrders() : null;
+        if (orderRequests == null || orderRequests.isEmpty()) {
+            throw new ApiException("The batch must contain at least one order.", HttpStatus.BAD_REQUEST);
+        }
+        if (orderRequests.size() > MAX_BATCH_SIZE) {
+            throw new ApiException("The batch must contain at most " + MAX_BATCH_SIZE + " orders.", HttpStatus.BAD_REQUEST);
+        }
+
+        List<OrderBatchItemResponse> items = new ArrayList<>(orderRequests.size());
+        int created = 0;
+        for (int index = 0; index < orderRequests.size(); index++) {
+            OrderRequest orderRequest = orderRequests.get(index);
+            List<String> errors = validate(orderRequest);
+            if (!errors.isEmpty()) {
+                items.add(new OrderBatchItemResponse(index, null, null, errors));
+                customMetrics.incrementFailedOrders(); // Увеличиваем метрику неудачных операций
+                continue;
+            }
+
+            // Преобразуем запрос в заказ и вычисляем общую стоимость
+            Order order = orderService.mapToOrder(orderRequest);
+            order.setCustomerName(currentUser);
+            order.calculateTotalPrice();
+
+            // ID генерируется при сохранении, INSERT откладывается до сброса пакета
+            Order savedOrder = orderRepository.save(order);
+            items.add(new OrderBatchItemResponse(index, savedOrder.getOrderId(), savedOrder.getTotalPrice(), List.of()));
+
+            // Отправляем накопленный пакет INSERT и освобождаем контекст персистентности
+            if (++created % jdbcBatchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+            customMetrics.incrementSuccessfulOrders(); // Увеличиваем метрику успешных операций
+        }
+
+        if (created > 0) {
+            orderCacheKeys.invalidateFiltered(Order.Status.PENDING); // Новые заказы создаются в статусе PENDING
+        }
+        return new OrderBatchResponse(created, items.size() - created, items);
+    }
+
+    /**
+     * Проверяет заказ по ограничениям Bean Validation и правилам создания заказа.
+     *
+     * @param orderRequest заказ из пакета
+     * @return описания ошибок в виде "поле: сообщение" (пустой список, если заказ корректен)
+     */
+    private List<String> validate(OrderRequest orderRequest) {
+        if (orderRequest == null) {
+            return List.of("order: must not be null");
+        }
+        List<String> errors = new ArrayList<>();
+        for (ConstraintViolation<OrderRequest> violation : validator.validate(orderRequest)) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        if (orderRequest.getProducts() != null && orderRequest.getProducts().isEmpty()) {
+            errors.add("products: the order must contain at least one product");
+        }
+        // Цена и количество нужны для расчёта общей стоимости заказа
+        List<ProductRequest> products = orderRequest.getProducts() != null ? orderRequest.getProducts() : List.of();
+        for (int i = 0; i < products.size(); i++) {
+            ProductRequest product = products.get(i);
+            if (product == null) {
+                errors.add("products[" + i + "]: must not be null");
+            } else if (product.getPrice() == null || product.getQuantity() == null) {
+                errors.add("products[" + i + "]: price and quantity are required");
+            }
+        }
+        errors.sort(null); // Порядок нарушений Bean Validation не определён
+        return errors;
+    }
+}
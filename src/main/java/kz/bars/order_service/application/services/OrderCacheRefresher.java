@@ -0,0 +1,106 @@
+package kz.bars.order_service.application.services;
+
+import kz.bars.order_service.infrastructure.cache.HotKeyTracker;
+import kz.bars.order_service.infrastructure.cache.OrderCacheKeys;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Упреждающее обновление (refresh-ahead) популярных заказов в кэше orderResponses.
+ * Периодически берёт самые популярные ключи из HotKeyTracker и перечитывает в фоне те заказы,
+ * которые этот узел не обновлял дольше заданного интервала. Выборки (ключи "filtered:...")
+ * не обновляются: они инвалидируются по версиям и дёшево перестраиваются при промахе.
+ */
+@Component
+@Log4j2
+@SuppressWarnings("unused") // Подавляет предупреждения о неиспользуемых методах
+public class OrderCacheRefresher {
+
+    private final HotKeyTracker hotKeyTracker;
+    private final OrderService orderService;
+    private final boolean enabled; // Включено ли упреждающее обновление
+    private final int topSize; // Количество популярных ключей, проверяемых за один проход
+    private final long hotThreshold; // Минимальная частота обращений обновляемого ключа
+    private final long refreshAfterMillis; // Возраст записи, после которого она обновляется
+    private final Map<String, Long> lastRefreshed = new ConcurrentHashMap<>(); // Ключ -> время последнего обновления
+
+    /**
+     * Конструктор с внедрением значений из application.yml.
+     *
+     * @param hotKeyTracker учёт частоты обращений к ключам
+     * @param orderService  сервис заказов
+     * @param enabled       включено ли упреждающее обновление
+     * @param topSize       количество популярных ключей, проверяемых за один проход
+     * @param hotThreshold  минимальная частота обращений обновляемого ключа
+     * @param refreshAfter  возраст записи, после которого она обновляется (меньше TTL)
+     */
+    public OrderCacheRefresher(
+            HotKeyTracker hotKeyTracker,
+            OrderService orderService,
+            @Value("${cache.order-responses.refresh-ahead.enabled:true}") boolean enabled,
+            @Value("${cache.order-responses.refresh-ahead.top-size:50}") int topSize,
+            @Value("${cache.order-responses.hot-threshold:20}") long hotThreshold,
+            @Value("${cache.order-responses.refresh-ahead.refresh-after:5m}") Duration refreshAfter) {
+        this.hotKeyTracker = hotKeyTracker;
+        this.orderService = orderService;
+        this.enabled = enabled;
+        this.topSize = topSize;
+        this.hotThreshold = hotThreshold;
+        this.refreshAfterMillis = refreshAfter.toMillis();
+    }
+
+    /**
+     * Обновляет популярные заказы, приближающиеся к истечению TTL.
+     */
+    @Scheduled(fixedDelayString = "${cache.order-responses.refresh-ahead.interval:30000}")
+    public void refreshHotOrders() {
+        if (!enabled) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        Set<String> hotKeys = hotKeyTracker.top(OrderCacheKeys.CACHE_NAME, topSize).stream()
+                .filter(hotKey -> hotKey.count() >= hotThreshold)
+                .map(HotKeyTracker.HotKey::key)
+                .collect(Collectors.toSet());
+        lastRefreshed.keySet().retainAll(hotKeys); // Остывшие ключи больше не отслеживаются
+
+        for (String key : hotKeys) {
+            Long refreshedAt = lastRefreshed.putIfAbsent(key, now);
+            if (refreshedAt == null || now - refreshedAt < refreshAfterMillis) {
+                continue; // Ключ только что стал популярным или недавно обновлялся
+            }
+            parseOrderId(key).ifPresent(orderId -> refresh(key, orderId, now));
+        }
+    }
+
+    private void refresh(String key, UUID orderId, long now) {
+        try {
+            orderService.refreshOrderResponse(orderId);
+            lastRefreshed.put(key, now);
+        } catch (Exception e) {
+            log.warn("Unable to refresh cached order {}: {}", orderId, e.getMessage());
+        }
+    }
+
+    /**
+     * Ключи отдельных заказов - это UUID; остальные ключи (выборки) пропускаются.
+     */
+    private static Optional<UUID> parseOrderId(String key) {
+        try {
+            return Optional.of(UUID.fromString(key));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -1,29 +1,46 @@
 package kz.bars.order_service.application.services;
 
+import kz.bars.order_service.domain.specifications.OrderCursor;
+import kz.bars.order_service.domain.specifications.OrderSort;
 import kz.bars.order_service.domain.specifications.OrderSpecification;
+import kz.bars.order_service.presentation.dto.OrderBulkResponse;
+import kz.bars.order_service.presentation.dto.OrderPageResponse;
 import kz.bars.order_service.presentation.dto.OrderRequest;
 import kz.bars.order_service.presentation.dto.OrderResponse;
+import kz.bars.order_service.presentation.dto.ProductRequest;
 import kz.bars.order_service.presentation.dto.ProductResponse;
-import kz.bars.order_service.application.dto.UserDto;
 import kz.bars.order_service.domain.models.Order;
 import kz.bars.order_service.domain.models.Product;
 import kz.bars.order_service.domain.models.Role;
 import kz.bars.order_service.domain.repositories.OrderRepository;
+import kz.bars.order_service.infrastructure.cache.OrderCacheKeys;
+import kz.bars.order_service.infrastructure.cache.OrderTombstones;
+import kz.bars.order_service.infrastructure.cache.RequestCoalescer;
 import kz.bars.order_service.infrastructure.exception.ApiException;
 import kz.bars.order_service.infrastructure.metrics.CustomMetrics;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachePut;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,40 +48,64 @@ import java.util.stream.Collectors;
 @SuppressWarnings("unused") // Подавляет предупреждения о неиспользуемых методах
 public class OrderService {
 
+    private static final String ORDER_RESPONSES_CACHE = OrderCacheKeys.CACHE_NAME; // Кэш заказов и выборок в формате DTO
+
+    /**
+     * Размер страницы выборки заказов по умолчанию.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    /**
+     * Максимальный размер страницы выборки заказов; больший limit уменьшается до него.
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Максимальное количество ID в одной пакетной операции (удаление, смена статуса).
+     */
+    public static final int MAX_BULK_SIZE = 1000;
+
     private final OrderRepository orderRepository;
     private final UserService userService;
     private final CustomMetrics customMetrics;
+    private final OrderCacheKeys orderCacheKeys;
+    private final CacheManager cacheManager;
+    private final RequestCoalescer requestCoalescer;
+    private final OrderTombstones orderTombstones;
 
     /**
-     * Получение всех заказов с фильтрацией по статусу и диапазону цен.
-     * Результаты кешируются в Redis.
+     * Получение страницы заказов с фильтрацией по статусу и диапазону цен.
+     * Страницы выбираются по курсору (keyset pagination): база данных возвращает не больше
+     * limit + 1 заказов, начиная с позиции курсора, поэтому память и время запроса
+     * ограничены размером страницы, а не размером таблицы. Размер страницы не превышает {@link #MAX_PAGE_SIZE}.
+     * Страницы кешируются в Redis под ключом с версией группы статуса,
+     * поэтому изменения заказов инвалидируют только затронутые выборки.
+     * Одновременные промахи по одной странице объединяются в один запрос к базе данных.
      *
      * @param status   статус заказа (может быть null)
      * @param minPrice минимальная цена (может быть null)
      * @param maxPrice максимальная цена (может быть null)
-     * @return список заказов в формате DTO
+     * @param sort     ключ сортировки (может быть null - по ID заказа)
+     * @param limit    размер страницы
+     * @param cursor   курсор из предыдущей страницы (может быть null - первая страница)
+     * @return страница заказов в формате DTO и курсор следующей страницы
      */
-    @Cacheable(value = "orderResponses", key = "'filtered:' + #status?.name() + ':' + #minPrice + ':' + #maxPrice", unless = "#result == null || #result.isEmpty()")
-    public List<OrderResponse> getOrdersFiltered(Order.Status status, BigDecimal minPrice, BigDecimal maxPrice) {
+    public OrderPageResponse getOrdersFiltered(Order.Status status, BigDecimal minPrice, BigDecimal maxPrice,
+                                               OrderSort sort, int limit, String cursor) {
         try {
-            // Создаем динамическую спецификацию
-            Specification<Order> spec = Specification.where(OrderSpecification.hasStatus(status))
-                    .and(OrderSpecification.hasMinPrice(minPrice))
-                    .and(OrderSpecification.hasMaxPrice(maxPrice));
-
-            // Фильтруем заказы
-            List<Order> orders = orderRepository.findAll(spec).stream()
-                    .filter(order -> !order.isDeleted()) // Исключаем удалённые заказы
-                    .toList();
+            OrderSort orderSort = sort != null ? sort : OrderSort.ORDER_ID;
+            int pageSize = pageSize(limit);
+            OrderCursor after = decodeCursor(cursor, orderSort);
 
-            // Преобразование сущностей Order в DTO OrderResponse
-            List<OrderResponse> responses = orders.stream()
-                    .map(this::mapToOrderResponse)
-                    .toList();
+            // Берём страницу из кэша, при промахе её загружает только один запрос.
+            // Загружается на один заказ больше, чтобы узнать, есть ли следующая страница
+            List<OrderResponse> responses = requestCoalescer.get(orderResponsesCache(),
+                    orderCacheKeys.filtered(status, minPrice, maxPrice, orderSort, pageSize, cursor),
+                    () -> findOrdersFiltered(status, minPrice, maxPrice, orderSort, pageSize + 1, after));
 
             // Увеличиваем метрику успешных операций
             customMetrics.incrementSuccessfulOrders();
-            return responses;
+            return toPage(responses, orderSort, pageSize);
         } catch (Exception e) {
             customMetrics.incrementFailedOrders();
             throw e;
@@ -73,9 +114,15 @@ public class OrderService {
 
     /**
      * Получение заказа по ID в виде DTO с использованием Redis Cache.
+     * Заказ загружается и кэшируется независимо от пользователя, поэтому одновременные промахи
+     * по одному заказу объединяются в один запрос. Кэшированное значение содержит владельца заказа,
+     * и права доступа проверяются при каждом чтении, в том числе при попадании в кэш:
+     * проверка сравнивает имя владельца с текущим пользователем и полномочия из SecurityContext,
+     * не обращаясь ни к базе данных, ни к Redis.
+     * Несуществующие и удалённые заказы отмечаются в негативном кэше, поэтому повторные
+     * запросы к ним тоже не доходят до базы данных.
      * Успешная операция увеличивает счетчик успешных операций.
      */
-    @Cacheable(value = "orderResponses", key = "#orderId", unless = "#result == null")
     public OrderResponse getOrderResponseById(UUID orderId) {
         try {
             // Получаем имя текущего пользователя
@@ -84,18 +131,16 @@ public class OrderService {
                 throw new IllegalStateException("User is not authenticated");
             }
 
-            // Находим заказ по ID, исключая удалённые
-            Order order = orderRepository.findById(orderId)
-                    .filter(o -> !o.isDeleted())
-                    .orElseThrow(() -> new ApiException("Order not found or deleted with ID: " + orderId, HttpStatus.NOT_FOUND));
+            // Берём заказ из кэша, при промахе его загружает только один запрос
+            OrderResponse response = requestCoalescer.get(orderResponsesCache(), orderId, () -> loadOrderResponse(orderId));
 
-            // Проверяем доступ пользователя
-            if (isAccessDeniedToOrder(currentUser, order)) {
-                throw new AccessDeniedException("You do not have permission to modify this order.");
+            // Проверка владельца выполняется и для значения из кэша; чужой заказ неотличим от несуществующего
+            if (isAccessDeniedToOrder(currentUser, response.getCustomerName())) {
+                throw new ApiException("Order not found or deleted with ID: " + orderId, HttpStatus.NOT_FOUND);
             }
 
             customMetrics.incrementSuccessfulOrders(); // Увеличиваем метрику успешных операций
-            return mapToOrderResponse(order); // Преобразуем заказ в DTO и возвращаем
+            return response;
         } catch (Exception e) {
             customMetrics.incrementFailedOrders(); // Увеличиваем метрику неудачных операций
             throw e; // Пробрасываем исключение дальше
@@ -106,8 +151,7 @@ public class OrderService {
      * Создание нового заказа, преобразование в DTO и обновление кэша.
      * Успешная операция увеличивает счетчик успешных операций.
      */
-    @CacheEvict(value = "orderResponses", allEntries = true)
-    @CachePut(value = "orderResponses", key = "#result.orderId")
+    @CachePut(value = ORDER_RESPONSES_CACHE, key = "#result.orderId")
     @Transactional
     public OrderResponse createOrder(OrderRequest request) {
         try {
@@ -131,6 +175,8 @@ public class OrderService {
 
             // Сохраняем заказ в репозитории
             Order savedOrder = orderRepository.save(order);
+            orderTombstones.evict(savedOrder.getOrderId()); // Снимаем отметку, если ID ранее запрашивался
+            orderCacheKeys.invalidateFiltered(savedOrder.getStatus()); // Инвалидируем выборки со статусом нового заказа
 
             customMetrics.incrementSuccessfulOrders(); // Увеличиваем метрику успешных операций
             return mapToOrderResponse(savedOrder); // Преобразуем сохранённый заказ в DTO и возвращаем
@@ -142,10 +188,11 @@ public class OrderService {
 
     /**
      * Обновление заказа, преобразование в DTO и обновление кэша.
+     * Продукты обновляются по разнице с запросом (см. {@link #applyProductChanges}),
+     * поэтому изменение одной строки не приводит к удалению и повторной вставке всех продуктов.
      * Успешная операция увеличивает счетчик успешных операций.
      */
-    @CacheEvict(value = "orderResponses", allEntries = true)
-    @CachePut(value = "orderResponses", key = "#orderId")
+    @CachePut(value = ORDER_RESPONSES_CACHE, key = "#orderId")
     @Transactional
     public OrderResponse updateOrder(UUID orderId, OrderRequest request) {
         try {
@@ -155,35 +202,19 @@ public class OrderService {
                 throw new IllegalStateException("User is not authenticated");
             }
 
-            // Находим существующий заказ
-            Order existingOrder = orderRepository.findById(orderId)
+            // Находим существующий заказ, доступный пользователю
+            Order existingOrder = findAccessibleOrder(orderId, currentUser)
                     .orElseThrow(() -> new ApiException("Order not found with ID: " + orderId, HttpStatus.NOT_FOUND));
 
-            // Проверяем доступ пользователя
-            if (isAccessDeniedToOrder(currentUser, existingOrder)) {
-                throw new AccessDeniedException("You do not have permission to modify this order.");
-            }
-
-            // Очищаем список продуктов и добавляем новые
-            existingOrder.getProducts().clear();
-            existingOrder.getProducts().addAll(
-                    request.getProducts().stream()
-                            .map(productRequest -> {
-                                Product product = new Product();
-                                product.setName(productRequest.getName());
-                                product.setPrice(productRequest.getPrice());
-                                product.setQuantity(productRequest.getQuantity());
-                                product.setOrder(existingOrder); // Устанавливаем связь с заказом
-                                return product;
-                            })
-                            .toList()
-            );
+            // Применяем к строкам продуктов минимальный набор изменений
+            applyProductChanges(existingOrder, request.getProducts());
 
             // Пересчитываем общую стоимость и сохраняем изменения
             existingOrder.calculateTotalPrice();
 
             // Сохраняем заказ в репозитории
             Order updatedOrder = orderRepository.save(existingOrder);
+            orderCacheKeys.invalidateFiltered(updatedOrder.getStatus()); // Стоимость изменилась - инвалидируем выборки статуса
 
             customMetrics.incrementSuccessfulOrders(); // Увеличиваем метрику успешных операций
             return mapToOrderResponse(updatedOrder); // Преобразуем заказ в DTO и возвращаем
@@ -193,36 +224,119 @@ public class OrderService {
         }
     }
 
+    /**
+     * Применяет к продуктам заказа разницу с запросом.
+     * Строки с productId изменяются на месте (UPDATE выполняется, только если значения отличаются),
+     * строки без productId добавляются, а строки заказа, не переданные в запросе, удаляются (orphanRemoval).
+     * Неизменённые строки не перезаписываются и сохраняют свои ID.
+     *
+     * @param order    заказ с загруженными продуктами
+     * @param requests продукты из запроса на обновление
+     * @throws ApiException если productId не принадлежит заказу или повторяется в запросе
+     */
+    private void applyProductChanges(Order order, List<ProductRequest> requests) {
+        Map<UUID, Product> existingProducts = order.getProducts().stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+        Set<UUID> keptProductIds = new HashSet<>();
+        List<Product> addedProducts = new ArrayList<>();
+
+        for (ProductRequest productRequest : requests) {
+            UUID productId = productRequest.getProductId();
+            if (productId == null) {
+                // Новая строка продукта
+                Product product = new Product();
+                copyProductFields(productRequest, product);
+                product.setOrder(order); // Устанавливаем связь с заказом
+                addedProducts.add(product);
+                continue;
+            }
+
+            Product product = existingProducts.get(productId);
+            if (product == null) {
+                throw new ApiException("Product " + productId + " does not belong to order " + order.getOrderId(), HttpStatus.BAD_REQUEST);
+            }
+            if (!keptProductIds.add(productId)) {
+                throw new ApiException("Product " + productId + " is listed more than once", HttpStatus.BAD_REQUEST);
+            }
+            copyProductFields(productRequest, product);
+        }
+
+        // Удаляем строки, не переданные в запросе, и добавляем новые
+        order.getProducts().removeIf(product -> !keptProductIds.contains(product.getProductId()));
+        order.getProducts().addAll(addedProducts);
+    }
+
+    /**
+     * Копирует поля запроса в продукт, не изменяя совпадающие значения.
+     * Цена сравнивается без учёта масштаба, чтобы 150 и 150.00 не считались изменением.
+     */
+    private static void copyProductFields(ProductRequest productRequest, Product product) {
+        if (!Objects.equals(product.getName(), productRequest.getName())) {
+            product.setName(productRequest.getName());
+        }
+        if (product.getPrice() == null || productRequest.getPrice() == null
+                || product.getPrice().compareTo(productRequest.getPrice()) != 0) {
+            product.setPrice(productRequest.getPrice());
+        }
+        if (!Objects.equals(product.getQuantity(), productRequest.getQuantity())) {
+            product.setQuantity(productRequest.getQuantity());
+        }
+    }
+
     /**
      * Мягкое удаление заказа и удаление из кэша.
+     * Заказ удаляется одним условным UPDATE без загрузки: администратор удаляет любой заказ,
+     * остальные - только собственные. Если ни одна строка не изменена, заказ не найден,
+     * уже удалён или принадлежит другому пользователю (404).
+     * Запись кэша удаляется и отметка ставится после фиксации транзакции (см. {@link #afterCommit}).
      * Успешная операция увеличивает счетчик успешных операций.
      */
-    @CacheEvict(value = "orderResponses", allEntries = true)
     @Transactional
     public void deleteOrder(UUID orderId) {
         try {
-            // Получаем имя текущего пользователя
-            String currentUser = userService.getCurrentUsername();
-            if (currentUser == null) {
-                throw new IllegalStateException("User is not authenticated");
+            if (softDelete(List.of(orderId)) == 0) {
+                throw new ApiException("Order not found with ID: " + orderId, HttpStatus.NOT_FOUND);
             }
+            afterCommit(() -> {
+                orderResponsesCache().evict(orderId);
+                orderTombstones.put(orderId); // Повторные запросы удалённого заказа обслуживаются негативным кэшем
+            });
 
-            // Находим заказ по ID
-            Order order = orderRepository.findById(orderId)
-                    .orElseThrow(() -> new ApiException("Order not found with ID: " + orderId, HttpStatus.NOT_FOUND));
-
-            // Проверяем доступ пользователя
-            if (isAccessDeniedToOrder(currentUser, order)) {
-                throw new AccessDeniedException("You do not have permission to modify this order.");
-            }
-
-            // Помечаем заказ как удалённый
-            order.setDeleted(true);
+            customMetrics.incrementSuccessfulOrders(); // Увеличиваем метрику успешных операций
+        } catch (Exception e) {
+            customMetrics.incrementFailedOrders(); // Увеличиваем метрику неудачных операций
+            throw e; // Пробрасываем исключение дальше
+        }
+    }
 
-            // Сохраняем заказ в репозитории
-            orderRepository.save(order);
+    /**
+     * Мягкое удаление нескольких заказов одним условным UPDATE.
+     * Удаляются только доступные пользователю неудалённые заказы, остальные ID пропускаются.
+     * Записи всех переданных заказов удаляются из кэша; негативный кэш заполняется,
+     * только если удалены все заказы, иначе неизвестно, какие ID были пропущены.
+     * Кэш изменяется после фиксации транзакции (см. {@link #afterCommit}).
+     * Успешная операция увеличивает счетчик успешных операций.
+     *
+     * @param orderIds ID заказов (размер проверяется в OrderBulkDeleteRequest)
+     * @return количество запрошенных и удалённых заказов
+     */
+    @Transactional
+    public OrderBulkResponse deleteOrders(List<UUID> orderIds) {
+        try {
+            List<UUID> ids = orderIds.stream().distinct().toList();
+            int affected = softDelete(ids);
+
+            boolean allDeleted = affected == ids.size();
+            afterCommit(() -> {
+                Cache cache = orderResponsesCache();
+                ids.forEach(cache::evict);
+                if (allDeleted) {
+                    ids.forEach(orderTombstones::put);
+                }
+            });
 
             customMetrics.incrementSuccessfulOrders(); // Увеличиваем метрику успешных операций
+            return new OrderBulkResponse(ids.size(), affected);
         } catch (Exception e) {
             customMetrics.incrementFailedOrders(); // Увеличиваем метрику неудачных операций
             throw e; // Пробрасываем исключение дальше
@@ -231,28 +345,55 @@ public class OrderService {
 
     /**
      * Изменение статуса заказа и публикация события.
+     * Статус меняется одним условным UPDATE, только если заказ не удалён и находится в статусе fromStatus
+     * (сравнение с обменом), поэтому заказ не загружается, а параллельный переход не перезаписывается.
+     * Администратор меняет статус любого заказа, остальные - только собственных.
+     * Если ни одна строка не изменена, заказ не найден, недоступен или его статус уже другой (409).
+     * Запись кэша удаляется после фиксации транзакции (см. {@link #afterCommit}).
      * Успешная операция увеличивает счетчик успешных операций.
+     *
+     * @param orderId    ID заказа
+     * @param fromStatus ожидаемый текущий статус
+     * @param newStatus  новый статус
      */
-    @CacheEvict(value = "orderResponses", allEntries = true)
-    @CachePut(value = "orderResponses", key = "#orderId")
-    public Order updateOrderStatus(UUID orderId, Order.Status newStatus) {
+    @Transactional
+    public void updateOrderStatus(UUID orderId, Order.Status fromStatus, Order.Status newStatus) {
         try {
-            // Находим заказ по ID
-            Order order = orderRepository.findById(orderId)
-                    .orElseThrow(() -> new ApiException("Order not found", HttpStatus.NOT_FOUND));
-
-            // Сохраняем старый статус и обновляем на новый
-            Order.Status oldStatus = order.getStatus();
-            order.setStatus(newStatus);
+            if (transitionStatus(List.of(orderId), fromStatus, newStatus) == 0) {
+                throw new ApiException("Order " + orderId + " was not found in status " + fromStatus, HttpStatus.CONFLICT);
+            }
+            afterCommit(() -> orderResponsesCache().evict(orderId));
 
-            // Генерируем событие изменения статуса
-            generateStatusChangeEvent(order.getOrderId(), oldStatus, newStatus);
+            customMetrics.incrementSuccessfulOrders(); // Увеличиваем метрику успешных операций
+        } catch (Exception e) {
+            customMetrics.incrementFailedOrders(); // Увеличиваем метрику неудачных операций
+            throw e; // Пробрасываем исключение дальше
+        }
+    }
 
-            // Сохраняем изменения
-            Order updatedOrder = orderRepository.save(order);
+    /**
+     * Перевод нескольких заказов из статуса fromStatus в newStatus одним условным UPDATE.
+     * Заказы в другом статусе, удалённые и недоступные пользователю заказы пропускаются.
+     * Записи кэша удаляются после фиксации транзакции (см. {@link #afterCommit}).
+     * Успешная операция увеличивает счетчик успешных операций.
+     *
+     * @param orderIds   ID заказов (размер проверяется в OrderBulkStatusRequest)
+     * @param fromStatus ожидаемый текущий статус
+     * @param newStatus  новый статус
+     * @return количество запрошенных и изменённых заказов
+     */
+    @Transactional
+    public OrderBulkResponse updateOrdersStatus(List<UUID> orderIds, Order.Status fromStatus, Order.Status newStatus) {
+        try {
+            List<UUID> ids = orderIds.stream().distinct().toList();
+            int affected = transitionStatus(ids, fromStatus, newStatus);
+            afterCommit(() -> {
+                Cache cache = orderResponsesCache();
+                ids.forEach(cache::evict);
+            });
 
             customMetrics.incrementSuccessfulOrders(); // Увеличиваем метрику успешных операций
-            return updatedOrder; // Возвращаем обновлённый заказ
+            return new OrderBulkResponse(ids.size(), affected);
         } catch (Exception e) {
             customMetrics.incrementFailedOrders(); // Увеличиваем метрику неудачных операций
             throw e; // Пробрасываем исключение дальше
@@ -260,40 +401,262 @@ public class OrderService {
     }
 
     /**
-     * Заглушка, генерирует событие при изменении статуса заказа.
-     * @param orderId   ID заказа
+     * Мягко удаляет доступные текущему пользователю заказы одним UPDATE.
+     * Статусы удалённых заказов неизвестны без их загрузки, поэтому инвалидируются выборки всех статусов:
+     * это несколько инкрементов версий против загрузки каждого заказа.
+     *
+     * @param orderIds ID заказов
+     * @return количество удалённых заказов
+     */
+    private int softDelete(Collection<UUID> orderIds) {
+        // Получаем имя текущего пользователя
+        String currentUser = userService.getCurrentUsername();
+        if (currentUser == null) {
+            throw new IllegalStateException("User is not authenticated");
+        }
+
+        // Владелец проверяется в самом запросе, администратору доступен любой заказ
+        int affected = userService.hasCurrentUserRole(Role.RoleName.ADMIN)
+                ? orderRepository.softDeleteByIds(orderIds)
+                : orderRepository.softDeleteByIdsAndCustomerName(orderIds, currentUser);
+        if (affected > 0) {
+            orderCacheKeys.invalidateFiltered(Order.Status.values());
+        }
+        return affected;
+    }
+
+    /**
+     * Переводит доступные текущему пользователю заказы между статусами одним UPDATE и публикует событие.
+     *
+     * @param orderIds   ID заказов
+     * @param fromStatus ожидаемый текущий статус
+     * @param newStatus  новый статус
+     * @return количество изменённых заказов
+     */
+    private int transitionStatus(Collection<UUID> orderIds, Order.Status fromStatus, Order.Status newStatus) {
+        // Получаем имя текущего пользователя
+        String currentUser = userService.getCurrentUsername();
+        if (currentUser == null) {
+            throw new IllegalStateException("User is not authenticated");
+        }
+
+        // Владелец проверяется в самом запросе, администратору доступен любой заказ
+        int affected = userService.hasCurrentUserRole(Role.RoleName.ADMIN)
+                ? orderRepository.updateStatusByIds(orderIds, fromStatus, newStatus)
+                : orderRepository.updateStatusByIdsAndCustomerName(orderIds, currentUser, fromStatus, newStatus);
+        if (affected > 0) {
+            generateStatusChangeEvent(orderIds, fromStatus, newStatus, affected);
+            orderCacheKeys.invalidateFiltered(fromStatus, newStatus); // Заказы переходят между группами статусов
+        }
+        return affected;
+    }
+
+    /**
+     * Заглушка, генерирует событие при изменении статуса заказов.
+     * @param orderIds  ID заказов, переданные на изменение
      * @param oldStatus Старый статус
      * @param newStatus Новый статус
+     * @param affected  Количество изменённых заказов
      */
-    private void generateStatusChangeEvent(UUID orderId, Order.Status oldStatus, Order.Status newStatus) {
-        System.out.printf("Event generated: order_id=%s, old_status=%s, new_status=%s%n",
-                orderId, oldStatus, newStatus);
+    private void generateStatusChangeEvent(Collection<UUID> orderIds, Order.Status oldStatus, Order.Status newStatus, int affected) {
+        System.out.printf("Event generated: order_ids=%s, old_status=%s, new_status=%s, affected=%d%n",
+                orderIds, oldStatus, newStatus, affected);
+    }
+
+    /**
+     * Находит неудалённый заказ, доступный текущему пользователю.
+     * Удалённый заказ не изменяется и не удаляется повторно, иначе обновление вернуло бы его в кэш.
+     * Администратору доступен любой заказ, остальным - только собственные:
+     * проверка владельца выполняется в самом запросе, поэтому чужой заказ
+     * стоит одного индексированного поиска и неотличим от несуществующего (404).
+     *
+     * @param orderId     ID заказа
+     * @param currentUser имя текущего пользователя
+     * @return заказ или пустой Optional, если заказ не найден или недоступен
+     */
+    private Optional<Order> findAccessibleOrder(UUID orderId, String currentUser) {
+        return userService.hasCurrentUserRole(Role.RoleName.ADMIN)
+                ? orderRepository.findByOrderIdAndDeletedFalse(orderId)
+                : orderRepository.findByOrderIdAndCustomerNameAndDeletedFalse(orderId, currentUser);
     }
 
     /**
      * Проверяет, запрещен ли доступ пользователя к заказу.
+     * Роль берётся из полномочий текущей аутентификации, без обращения к базе данных.
+     * Владелец проверяется первым, поэтому в основном случае полномочия не перебираются.
      *
-     * @param order объект заказа
+     * @param currentUser  имя текущего пользователя
+     * @param customerName имя владельца заказа
      * @return true, если доступ запрещен, иначе false
      */
-    public boolean isAccessDeniedToOrder(String currentUser, Order order) {
-        // Получает данные пользователя по его имени
-        UserDto userDto = userService.getUserByUsername(currentUser);
-
+    public boolean isAccessDeniedToOrder(String currentUser, String customerName) {
         // Проверяем, является ли пользователь администратором или владельцем заказа, если да то false
-        return userService.getUserByUsername(currentUser)
-                .getRoles()
-                .stream()
-                .noneMatch(role -> role.getName().equals(Role.RoleName.ADMIN))
-                && !order.getCustomerName().equals(currentUser);
+        return !currentUser.equals(customerName)
+                && !userService.hasCurrentUserRole(Role.RoleName.ADMIN);
+    }
+
+    /**
+     * Упреждающее обновление заказа в кэше (refresh-ahead) для популярных ключей.
+     * Запись удаляется до чтения из базы данных, а прочитанный заказ кладётся через putIfAbsent,
+     * поэтому обновление никогда не заменяет более новую запись: значение из @CachePut
+     * или чтения, выполненного после удаления, остаётся в кэше, а изменения, зафиксированные
+     * после чтения, удаляют запись после фиксации (см. {@link #afterCommit}).
+     * Отметка в негативном кэше не ставится: удаление ставит её само, а отсутствие строки
+     * может означать заказ, создаваемый параллельно.
+     *
+     * @param orderId ID заказа
+     */
+    public void refreshOrderResponse(UUID orderId) {
+        Cache cache = orderResponsesCache();
+        cache.evict(orderId);
+        orderRepository.findResponseById(orderId) // Удалённые заказы исключаются в запросе
+                .ifPresent(response -> cache.putIfAbsent(orderId, response));
+    }
+
+    /**
+     * Прогрев кэша orderResponses при запуске узла.
+     * Загружает указанные заказы и первые страницы выборок без фильтров для каждого статуса
+     * и без статуса (основные представления администратора). Значения уже находящиеся в кэше не перечитываются,
+     * ненайденные заказы получают отметку в негативном кэше. Метрики операций не изменяются.
+     *
+     * @param orderIds ID заказов, которые нужно загрузить в кэш
+     * @return количество загруженных или уже закэшированных значений
+     */
+    public int warmUpCache(Collection<UUID> orderIds) {
+        Cache cache = orderResponsesCache();
+        int warmed = 0;
+        for (UUID orderId : orderIds) {
+            try {
+                requestCoalescer.get(cache, orderId, () -> loadOrderResponse(orderId));
+                warmed++;
+            } catch (ApiException e) {
+                // Заказ удалён после сохранения списка популярных ключей - отметка уже поставлена
+            }
+        }
+
+        List<Order.Status> statuses = new ArrayList<>(Arrays.asList(Order.Status.values()));
+        statuses.add(null); // Выборка без фильтра по статусу
+        for (Order.Status status : statuses) {
+            requestCoalescer.get(cache, orderCacheKeys.filtered(status, null, null, OrderSort.ORDER_ID, DEFAULT_PAGE_SIZE, null),
+                    () -> findOrdersFiltered(status, null, null, OrderSort.ORDER_ID, DEFAULT_PAGE_SIZE + 1, null));
+            warmed++;
+        }
+        return warmed;
+    }
+
+    /**
+     * Загружает заказ из базы данных при промахе кэша.
+     * Сначала проверяется негативный кэш; ненайденный или удалённый заказ получает отметку.
+     */
+    private OrderResponse loadOrderResponse(UUID orderId) {
+        if (orderTombstones.contains(orderId)) {
+            throw new ApiException("Order not found or deleted with ID: " + orderId, HttpStatus.NOT_FOUND);
+        }
+
+        // Заказ проецируется сразу в DTO; удалённые заказы исключаются в запросе
+        return orderRepository.findResponseById(orderId).orElseThrow(() -> {
+            orderTombstones.put(orderId);
+            return new ApiException("Order not found or deleted with ID: " + orderId, HttpStatus.NOT_FOUND);
+        });
+    }
+
+    /**
+     * Загружает страницу выборки заказов из базы данных, исключая удалённые.
+     * Фильтры, курсор и ограничение количества выполняются в запросе, без подсчёта общего числа строк.
+     * Страница загружается ровно двумя запросами независимо от её размера: ID заказов страницы
+     * и затем заказы с продуктами, без отдельного запроса продуктов на каждый заказ (N+1).
+     * Строки проецируются сразу в DTO, сущности не создаются.
+     */
+    private List<OrderResponse> findOrdersFiltered(Order.Status status, BigDecimal minPrice, BigDecimal maxPrice,
+                                                   OrderSort sort, int limit, OrderCursor after) {
+        // Создаем динамическую спецификацию
+        Specification<Order> spec = Specification.where(OrderSpecification.isNotDeleted())
+                .and(OrderSpecification.hasStatus(status))
+                .and(OrderSpecification.hasMinPrice(minPrice))
+                .and(OrderSpecification.hasMaxPrice(maxPrice))
+                .and(OrderSpecification.after(after));
+
+        // Выбираем ID заказов страницы (один запрос с LIMIT), затем заказы с продуктами сразу в DTO
+        List<UUID> orderIds = orderRepository.findPageIds(spec, sort.toSort(), limit);
+        return orderRepository.findResponsesByIds(orderIds);
+    }
+
+    /**
+     * Ограничивает размер страницы сверху, чтобы один запрос не мог выбрать всю таблицу.
+     */
+    private static int pageSize(int limit) {
+        if (limit < 1) {
+            throw new ApiException("Limit must be positive: " + limit, HttpStatus.BAD_REQUEST);
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Разбирает курсор клиента; курсор должен быть получен с тем же ключом сортировки.
+     * Курсор сортировки по цене без цены отклоняется: условие keyset сравнивало бы цену с null.
+     */
+    private static OrderCursor decodeCursor(String cursor, OrderSort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        OrderCursor decoded;
+        try {
+            decoded = OrderCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ApiException("Invalid cursor: " + cursor, HttpStatus.BAD_REQUEST);
+        }
+        if (decoded.sort() != sort) {
+            throw new ApiException("Cursor was issued for sort " + decoded.sort() + ", not " + sort, HttpStatus.BAD_REQUEST);
+        }
+        if (sort == OrderSort.TOTAL_PRICE && decoded.totalPrice() == null) {
+            throw new ApiException("Invalid cursor: total price is missing", HttpStatus.BAD_REQUEST);
+        }
+        return decoded;
+    }
+
+    /**
+     * Формирует страницу из limit + 1 загруженных заказов: лишний заказ означает наличие следующей страницы.
+     */
+    private static OrderPageResponse toPage(List<OrderResponse> responses, OrderSort sort, int pageSize) {
+        if (responses.size() <= pageSize) {
+            return new OrderPageResponse(responses, null); // Последняя страница
+        }
+        List<OrderResponse> items = responses.subList(0, pageSize);
+        OrderResponse last = items.get(pageSize - 1);
+        return new OrderPageResponse(items, new OrderCursor(sort, last.getTotalPrice(), last.getOrderId()).encode());
+    }
+
+    /**
+     * Выполняет изменение кэша после фиксации текущей транзакции, как OrderCacheKeys.invalidateFiltered.
+     * Внутри транзакции параллельное чтение ещё видит старую строку и снова положило бы её в кэш
+     * после удаления записи, а при откате осталась бы ложная отметка в негативном кэше.
+     * Вне транзакции действие выполняется сразу.
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private Cache orderResponsesCache() {
+        return cacheManager.getCache(ORDER_RESPONSES_CACHE);
     }
 
     /**
      * Преобразует объект Order в OrderResponse.
+     * Доступен в пакете для прогрева JIT-компиляции при запуске (WarmUpRunner).
      */
-    private OrderResponse mapToOrderResponse(Order order) {
+    OrderResponse mapToOrderResponse(Order order) {
         List<ProductResponse> productResponses = order.getProducts().stream()
                 .map(product -> new ProductResponse(
+                        product.getProductId(),
                         product.getName(),
                         product.getPrice(),
                         product.getQuantity()
@@ -311,8 +674,9 @@ public class OrderService {
 
     /**
      * Преобразует объект OrderRequest в Order.
+     * Доступен в пакете для пакетного создания заказов (OrderBatchService).
      */
-    private Order mapToOrder(OrderRequest request) {
+    Order mapToOrder(OrderRequest request) {
         Order order = new Order();
         order.setProducts(request.getProducts().stream()
                 .map(productRequest -> {
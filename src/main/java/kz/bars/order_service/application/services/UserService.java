@@ -1,8 +1,8 @@
 package kz.bars.order_service.application.services;
 
 import kz.bars.order_service.application.dto.UserDto;
-import kz.bars.order_service.domain.models.User;
-import kz.bars.order_service.domain.repositories.UserRepository;
+import kz.bars.order_service.domain.models.Role;
+import kz.bars.order_service.infrastructure.cache.UserCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -16,7 +16,7 @@ import java.util.ArrayList;
 @RequiredArgsConstructor
 public class UserService {
 
-    private final UserRepository userRepository;
+    private final UserCache userCache; // Локальный кэш пользователей и ролей
 
     /**
      * Получает данные пользователя по его имени.
@@ -26,15 +26,13 @@ public class UserService {
      * @throws UsernameNotFoundException если пользователь с указанным именем не найден
      */
     public UserDto getUserByUsername(String username) {
-        // Поиск пользователя в репозитории по имени
-        User user = userRepository.findByUsername(username)
+        // Поиск пользователя в кэше (при промахе - в репозитории) по имени
+        return userCache.get(username)
+                .map(user -> new UserDto(
+                        user.getUsername(),                  // Устанавливаем имя пользователя
+                        new ArrayList<>(user.getRoles())     // Копия списка ролей пользователя
+                ))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
-
-        // Преобразование Set<Role> в List<Role> для дальнейшего использования
-        return new UserDto(
-                user.getUsername(),                  // Устанавливаем имя пользователя
-                new ArrayList<>(user.getRoles())     // Приведение ролей пользователя к List<Role>
-        );
     }
 
     /**
@@ -49,4 +47,21 @@ public class UserService {
         }
         return null;
     }
+
+    /**
+     * Проверяет, есть ли у текущего пользователя указанная роль.
+     * Роли берутся из полномочий в SecurityContext, без обращения к базе данных.
+     *
+     * @param roleName имя роли
+     * @return true, если текущий пользователь аутентифицирован и имеет роль
+     */
+    public boolean hasCurrentUserRole(Role.RoleName roleName) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return false;
+        }
+        String authority = "ROLE_" + roleName;
+        return authentication.getAuthorities().stream()
+                .anyMatch(grantedAuthority -> authority.equals(grantedAuthority.getAuthority()));
+    }
 }
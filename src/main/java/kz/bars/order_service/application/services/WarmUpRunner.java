@@ -0,0 +1,292 @@
+package kz.bars.order_service.application.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import kz.bars.order_service.domain.models.Order;
+import kz.bars.order_service.domain.models.Product;
+import kz.bars.order_service.domain.models.User;
+import kz.bars.order_service.infrastructure.cache.HotKeyTracker;
+import kz.bars.order_service.infrastructure.cache.OrderCacheKeys;
+import kz.bars.order_service.infrastructure.resilience.RedisCircuitBreaker;
+import kz.bars.order_service.infrastructure.security.JwtTokenProvider;
+import kz.bars.order_service.presentation.dto.OrderResponse;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Прогрев узла при запуске, до того как он начнёт принимать трафик.
+ * <p>
+ * Выполняется синхронно в ApplicationRunner, поэтому Spring Boot переводит приложение
+ * в состояние готовности (ReadinessState.ACCEPTING_TRAFFIC) только после прогрева,
+ * а WarmUpHealthIndicator до его завершения возвращает OUT_OF_SERVICE на /healthcheck.
+ * <p>
+ * Этапы прогрева:
+ * <ul>
+ *     <li>connections - открытие соединений пула Hikari и соединения Lettuce с Redis;</li>
+ *     <li>cache - загрузка популярных заказов и выборок администратора в кэш orderResponses;</li>
+ *     <li>jit - многократный вызов mapToOrderResponse, разбора JWT и сериализации JSON.</li>
+ * </ul>
+ * Популярные заказы берутся из списка, который работающие узлы периодически сохраняют в Redis
+ * по данным HotKeyTracker. Ошибка прогрева не мешает запуску: узел становится готовым
+ * с холодным кэшем. Длительность этапов - метрика app.warmup.duration{phase}.
+ */
+@Component
+@Log4j2
+@SuppressWarnings("unused") // Подавляет предупреждения о неиспользуемых методах
+public class WarmUpRunner implements ApplicationRunner {
+
+    private static final String HOT_ORDERS_KEY = "cache:warmup:" + OrderCacheKeys.CACHE_NAME; // Список популярных заказов в Redis
+    private static final String SAMPLE_CUSTOMER = "warmup"; // Владелец синтетического заказа и токена
+
+    private final DataSource dataSource;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final OrderService orderService;
+    private final HotKeyTracker hotKeyTracker;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled; // Включён ли прогрев
+    private final int connections; // Количество одновременно удерживаемых соединений с базой данных
+    private final int hotOrders; // Количество популярных заказов, загружаемых в кэш
+    private final int iterations; // Количество повторов горячих участков кода для JIT-компиляции
+    private final Duration timeout; // Максимальная длительность этапа JIT
+    private final Duration hotOrdersTtl; // Время жизни списка популярных заказов в Redis
+    private volatile boolean completed; // Прогрев завершён (или отключён)
+
+    /**
+     * Конструктор с внедрением значений из application.yml.
+     *
+     * @param dataSource         источник данных (пул Hikari)
+     * @param tokenRedisTemplate шаблон Redis для соединения Lettuce и списка популярных заказов
+     * @param circuitBreaker     автоматический выключатель Redis
+     * @param orderService       сервис заказов
+     * @param hotKeyTracker      учёт частоты обращений к ключам
+     * @param jwtTokenProvider   провайдер JWT
+     * @param objectMapper       ObjectMapper Spring MVC
+     * @param meterRegistry      реестр метрик
+     * @param enabled            включён ли прогрев
+     * @param connections        количество одновременно удерживаемых соединений с базой данных
+     * @param hotOrders          количество популярных заказов, загружаемых в кэш
+     * @param iterations         количество повторов горячих участков кода
+     * @param timeout            максимальная длительность этапа JIT
+     * @param hotOrdersTtl       время жизни списка популярных заказов в Redis
+     */
+    public WarmUpRunner(
+            DataSource dataSource,
+            RedisTemplate<String, String> tokenRedisTemplate,
+            RedisCircuitBreaker circuitBreaker,
+            OrderService orderService,
+            HotKeyTracker hotKeyTracker,
+            JwtTokenProvider jwtTokenProvider,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${warmup.enabled:true}") boolean enabled,
+            @Value("${warmup.connections:10}") int connections,
+            @Value("${warmup.hot-orders:200}") int hotOrders,
+            @Value("${warmup.iterations:5000}") int iterations,
+            @Value("${warmup.timeout:30s}") Duration timeout,
+            @Value("${warmup.hot-orders-ttl:1h}") Duration hotOrdersTtl) {
+        this.dataSource = dataSource;
+        this.redisTemplate = tokenRedisTemplate;
+        this.circuitBreaker = circuitBreaker;
+        this.orderService = orderService;
+        this.hotKeyTracker = hotKeyTracker;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.connections = connections;
+        this.hotOrders = hotOrders;
+        this.iterations = iterations;
+        this.timeout = timeout;
+        this.hotOrdersTtl = hotOrdersTtl;
+        this.completed = !enabled;
+    }
+
+    /**
+     * Завершён ли прогрев узла.
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+
+        log.info("Warming up the node before accepting traffic...");
+        long start = System.nanoTime();
+        try {
+            phase("connections", this::warmUpConnections);
+            phase("cache", this::warmUpCache);
+            phase("jit", this::warmUpHotPaths);
+        } finally {
+            record("total", System.nanoTime() - start);
+            completed = true;
+            log.info("Warm-up completed in {} ms.", Duration.ofNanos(System.nanoTime() - start).toMillis());
+        }
+    }
+
+    /**
+     * Сохраняет в Redis список популярных заказов этого узла для прогрева следующих запускаемых узлов.
+     */
+    @Scheduled(fixedDelayString = "${warmup.hot-orders-save-interval:60000}")
+    public void saveHotOrders() {
+        if (!enabled || !completed) {
+            return; // До завершения прогрева статистика обращений ещё не накоплена
+        }
+
+        List<String> orderIds = hotKeyTracker.top(OrderCacheKeys.CACHE_NAME, hotOrders).stream()
+                .map(HotKeyTracker.HotKey::key)
+                .filter(key -> parseOrderId(key).isPresent()) // Выборки прогреваются отдельно
+                .toList();
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        circuitBreaker.run("warmup.save",
+                () -> redisTemplate.opsForValue().set(HOT_ORDERS_KEY, String.join(",", orderIds), hotOrdersTtl),
+                () -> log.debug("Hot orders were not saved: Redis is unavailable"));
+    }
+
+    /**
+     * Удерживает несколько соединений пула одновременно, чтобы Hikari создал их до первых запросов,
+     * и выполняет PING, устанавливая соединение Lettuce с Redis.
+     */
+    private void warmUpConnections() {
+        List<Connection> opened = new ArrayList<>();
+        try {
+            for (int i = 0; i < connections; i++) {
+                Connection connection = dataSource.getConnection();
+                opened.add(connection);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SELECT 1");
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("Unable to open database connections during warm-up: {}", e.getMessage());
+        } finally {
+            opened.forEach(WarmUpRunner::closeQuietly); // Соединения возвращаются в пул и остаются открытыми
+        }
+
+        circuitBreaker.run("warmup.ping",
+                () -> redisTemplate.execute((RedisCallback<String>) RedisConnection::ping),
+                () -> log.warn("Redis is unavailable during warm-up, caches will start cold."));
+    }
+
+    /**
+     * Загружает в кэш популярные заказы, сохранённые другими узлами, и выборки администратора.
+     */
+    private void warmUpCache() {
+        String saved = circuitBreaker.execute("warmup.load",
+                () -> redisTemplate.opsForValue().get(HOT_ORDERS_KEY), () -> null);
+        List<UUID> orderIds = saved == null ? List.of() : Arrays.stream(saved.split(","))
+                .map(WarmUpRunner::parseOrderId)
+                .flatMap(Optional::stream)
+                .limit(hotOrders)
+                .toList();
+        int warmed = orderService.warmUpCache(orderIds);
+        log.info("Warm-up loaded {} cache entries.", warmed);
+    }
+
+    /**
+     * Многократно выполняет горячие участки кода на синтетических данных,
+     * чтобы они были скомпилированы JIT до прихода трафика.
+     */
+    private void warmUpHotPaths() throws JsonProcessingException {
+        Order order = sampleOrder();
+        User user = new User();
+        user.setUsername(SAMPLE_CUSTOMER);
+        String token = jwtTokenProvider.generateToken(user);
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        for (int i = 0; i < iterations && System.nanoTime() < deadline; i++) {
+            OrderResponse response = orderService.mapToOrderResponse(order);
+            objectMapper.writeValueAsBytes(response);
+            objectMapper.writeValueAsBytes(List.of(response, response));
+            jwtTokenProvider.parseToken(token);
+        }
+    }
+
+    private void phase(String name, WarmUpPhase phase) {
+        long start = System.nanoTime();
+        try {
+            phase.run();
+        } catch (Exception e) {
+            log.warn("Warm-up phase {} failed: {}", name, e.getMessage());
+        } finally {
+            record(name, System.nanoTime() - start);
+        }
+    }
+
+    private void record(String phase, long elapsedNanos) {
+        Timer.builder("app.warmup.duration")
+                .description("Node warm-up duration before accepting traffic") // Описание метрики
+                .tag("phase", phase)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(elapsedNanos));
+    }
+
+    private static Order sampleOrder() {
+        Order order = new Order();
+        order.setOrderId(UUID.randomUUID());
+        order.setCustomerName(SAMPLE_CUSTOMER);
+        for (int i = 0; i < 3; i++) {
+            Product product = new Product();
+            product.setName("product-" + i);
+            product.setPrice(BigDecimal.valueOf(10L + i));
+            product.setQuantity(i + 1);
+            product.setOrder(order);
+            order.getProducts().add(product);
+        }
+        order.calculateTotalPrice();
+        return order;
+    }
+
+    private static Optional<UUID> parseOrderId(String key) {
+        try {
+            return Optional.of(UUID.fromString(key));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Unable to return warm-up connection to the pool: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Этап прогрева, который может завершиться проверяемым исключением.
+     */
+    @FunctionalInterface
+    private interface WarmUpPhase {
+        void run() throws Exception;
+    }
+}
@@ -39,7 +39,8 @@ public class Order implements Serializable {
     @DecimalMin(value = "0.0", inclusive = false) // Цена должна быть больше 0
     private BigDecimal totalPrice; // Общая стоимость заказа
 
-    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    // Продукты загружаются лениво; сценарии, которым они нужны, задают план загрузки в OrderRepository
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @JsonManagedReference // Обеспечивает корректную сериализацию в JSON
     private List<Product> products = new ArrayList<>(); // Список продуктов, связанных с заказом
 
@@ -37,7 +37,7 @@ public class Product implements Serializable {
     @Column(nullable = false) // Поле обязательно для заполнения
     private Integer quantity; // Количество продукта
 
-    @ManyToOne // Устанавливаем связь многие-к-одному с заказом
+    @ManyToOne(fetch = FetchType.LAZY) // Устанавливаем связь многие-к-одному с заказом; заказ уже загружен вместе с продуктами
     @JoinColumn(name = "order_id") // Внешний ключ для связи с таблицей заказов
     @JsonBackReference // Обеспечивает корректную сериализацию в JSON
     private Order order; // Ссылка на заказ, к которому принадлежит продукт
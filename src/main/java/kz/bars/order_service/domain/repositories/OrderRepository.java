@@ -1,19 +1,95 @@
 package kz.bars.order_service.domain.repositories;
 
 import kz.bars.order_service.domain.models.Order;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, UUID>, JpaSpecificationExecutor<Order> {
+public interface OrderRepository extends JpaRepository<Order, UUID>, JpaSpecificationExecutor<Order>, OrderResponseQueries {
 
     /**
      * Возвращает список всех заказов, с указаным статусом.
      * @return Список заказов, с указаным статусом.
      */
     List<Order> findByStatus(Order.Status status);
+
+    /**
+     * Возвращает заказ по ID вместе с продуктами, только если он не удалён.
+     * Условие deleted = false выполняется в запросе, удалённый заказ не загружается вовсе.
+     * @param orderId ID заказа
+     * @return заказ или пустой Optional, если заказ не найден или удалён
+     */
+    @EntityGraph(attributePaths = "products") // Заказ и продукты одним запросом
+    Optional<Order> findByOrderIdAndDeletedFalse(UUID orderId);
+
+    /**
+     * Возвращает неудалённый заказ по ID вместе с продуктами, только если он принадлежит указанному клиенту.
+     * @param orderId      ID заказа
+     * @param customerName имя клиента (владельца заказа)
+     * @return заказ или пустой Optional, если заказ не найден, удалён или принадлежит другому клиенту
+     */
+    @EntityGraph(attributePaths = "products") // Заказ и продукты одним запросом
+    Optional<Order> findByOrderIdAndCustomerNameAndDeletedFalse(UUID orderId, String customerName);
+
+    /**
+     * Мягко удаляет неудалённые заказы одним UPDATE без загрузки сущностей.
+     * Условие deleted = false делает повторное удаление пустой операцией.
+     * @param orderIds ID заказов
+     * @return количество удалённых заказов
+     */
+    @Modifying
+    @Query("update Order o set o.deleted = true where o.orderId in :orderIds and o.deleted = false")
+    int softDeleteByIds(@Param("orderIds") Collection<UUID> orderIds);
+
+    /**
+     * Мягко удаляет неудалённые заказы указанного клиента одним UPDATE без загрузки сущностей.
+     * Чужие заказы не изменяются и не учитываются в результате.
+     * @param orderIds     ID заказов
+     * @param customerName имя клиента (владельца заказов)
+     * @return количество удалённых заказов
+     */
+    @Modifying
+    @Query("update Order o set o.deleted = true where o.orderId in :orderIds and o.customerName = :customerName and o.deleted = false")
+    int softDeleteByIdsAndCustomerName(@Param("orderIds") Collection<UUID> orderIds, @Param("customerName") String customerName);
+
+    /**
+     * Переводит неудалённые заказы из одного статуса в другой одним UPDATE без загрузки сущностей.
+     * Заказы в другом статусе не изменяются, поэтому параллельные переходы не перезаписывают друг друга.
+     * @param orderIds   ID заказов
+     * @param fromStatus ожидаемый текущий статус
+     * @param toStatus   новый статус
+     * @return количество изменённых заказов
+     */
+    @Modifying
+    @Query("update Order o set o.status = :toStatus where o.orderId in :orderIds and o.status = :fromStatus and o.deleted = false")
+    int updateStatusByIds(@Param("orderIds") Collection<UUID> orderIds,
+                          @Param("fromStatus") Order.Status fromStatus,
+                          @Param("toStatus") Order.Status toStatus);
+
+    /**
+     * Переводит неудалённые заказы указанного клиента из одного статуса в другой одним UPDATE.
+     * Чужие заказы не изменяются и не учитываются в результате.
+     * @param orderIds     ID заказов
+     * @param customerName имя клиента (владельца заказов)
+     * @param fromStatus   ожидаемый текущий статус
+     * @param toStatus     новый статус
+     * @return количество изменённых заказов
+     */
+    @Modifying
+    @Query("update Order o set o.status = :toStatus where o.orderId in :orderIds and o.customerName = :customerName "
+            + "and o.status = :fromStatus and o.deleted = false")
+    int updateStatusByIdsAndCustomerName(@Param("orderIds") Collection<UUID> orderIds,
+                                         @Param("customerName") String customerName,
+                                         @Param("fromStatus") Order.Status fromStatus,
+                                         @Param("toStatus") Order.Status toStatus);
 }
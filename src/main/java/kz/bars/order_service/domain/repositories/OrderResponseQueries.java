@@ -0,0 +1,41 @@
+package kz.bars.order_service.domain.repositories;
+
+import kz.bars.order_service.domain.models.Order;
+import kz.bars.order_service.presentation.dto.OrderResponse;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Запросы чтения, возвращающие DTO напрямую из строк таблиц orders и products.
+ * Сущности не создаются и не попадают в контекст персистентности: нет снимков для dirty checking
+ * и прокси ленивых коллекций. Все запросы выполняются в транзакциях только для чтения.
+ */
+public interface OrderResponseQueries {
+
+    /**
+     * Возвращает неудалённый заказ с продуктами в формате DTO одним запросом.
+     * @param orderId ID заказа
+     * @return заказ или пустой Optional, если заказ не найден или удалён
+     */
+    Optional<OrderResponse> findResponseById(UUID orderId);
+
+    /**
+     * Возвращает ID заказов страницы выборки (keyset pagination) без загрузки самих заказов.
+     * @param spec  фильтры выборки
+     * @param sort  сортировка
+     * @param limit максимальное количество ID
+     * @return ID заказов в порядке сортировки
+     */
+    List<UUID> findPageIds(Specification<Order> spec, Sort sort, int limit);
+
+    /**
+     * Возвращает заказы с продуктами в формате DTO одним запросом.
+     * @param orderIds ID заказов
+     * @return заказы в порядке переданных ID; отсутствующие ID пропускаются
+     */
+    List<OrderResponse> findResponsesByIds(List<UUID> orderIds);
+}
@@ -0,0 +1,104 @@
+package kz.bars.order_service.domain.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import kz.bars.order_service.domain.models.Order;
+import kz.bars.order_service.presentation.dto.OrderResponse;
+import kz.bars.order_service.presentation.dto.ProductResponse;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Реализация запросов чтения DTO (фрагмент OrderRepository).
+ * Заказ и его продукты выбираются одной строкой на продукт (LEFT JOIN) в виде скалярных значений
+ * и собираются в OrderResponse без создания сущностей. Транзакции только для чтения переводят сессию
+ * Hibernate в FlushMode.MANUAL, поэтому перед запросами не выполняется проверка изменений.
+ */
+@SuppressWarnings("unused") // Подавляет предупреждения о неиспользуемых методах
+public class OrderResponseQueriesImpl implements OrderResponseQueries {
+
+    // Строки заказа с продуктами: по одной строке на продукт
+    private static final String SELECT_ROWS = """
+            select o.orderId, o.customerName, o.totalPrice, o.status, p.productId, p.name, p.price, p.quantity
+            from Order o left join o.products p
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<OrderResponse> findResponseById(UUID orderId) {
+        List<Object[]> rows = entityManager.createQuery(SELECT_ROWS + "where o.orderId = :orderId and o.deleted = false", Object[].class)
+                .setParameter("orderId", orderId)
+                .setFlushMode(FlushModeType.COMMIT) // Не сбрасывать изменения контекста перед чтением
+                .getResultList();
+        return toResponses(rows).values().stream().findFirst();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UUID> findPageIds(Specification<Order> spec, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UUID> query = cb.createQuery(UUID.class);
+        Root<Order> root = query.from(Order.class);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root.get("orderId")).orderBy(QueryUtils.toOrders(sort, root, cb));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .setFlushMode(FlushModeType.COMMIT) // Не сбрасывать изменения контекста перед чтением
+                .getResultList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderResponse> findResponsesByIds(List<UUID> orderIds) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+        List<Object[]> rows = entityManager.createQuery(SELECT_ROWS + "where o.orderId in :orderIds", Object[].class)
+                .setParameter("orderIds", orderIds)
+                .setFlushMode(FlushModeType.COMMIT) // Не сбрасывать изменения контекста перед чтением
+                .getResultList();
+        Map<UUID, OrderResponse> responses = toResponses(rows);
+        return orderIds.stream()
+                .map(responses::get)
+                .filter(Objects::nonNull) // Заказ мог быть удалён физически между запросами
+                .toList();
+    }
+
+    /**
+     * Собирает заказы из строк "заказ + продукт".
+     */
+    private static Map<UUID, OrderResponse> toResponses(List<Object[]> rows) {
+        Map<UUID, OrderResponse> responses = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            OrderResponse response = responses.computeIfAbsent((UUID) row[0], orderId -> new OrderResponse(
+                    orderId, (String) row[1], new ArrayList<>(), (BigDecimal) row[2], (Order.Status) row[3]));
+            if (row[4] != null) { // Заказ без продуктов даёт одну строку с пустыми полями продукта
+                response.getProducts().add(new ProductResponse(
+                        (UUID) row[4], (String) row[5], (BigDecimal) row[6], (Integer) row[7]));
+            }
+        }
+        return responses;
+    }
+}
@@ -2,6 +2,8 @@ package kz.bars.order_service.domain.repositories;
 
 import kz.bars.order_service.domain.models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,6 +12,15 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
 
+    /**
+     * Находит пользователя вместе с ролями одним запросом (fetch join).
+     *
+     * @param username имя пользователя
+     * @return пользователь с загруженными ролями
+     */
+    @Query("select u from User u left join fetch u.roles where u.username = :username")
+    Optional<User> findWithRolesByUsername(@Param("username") String username);
+
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
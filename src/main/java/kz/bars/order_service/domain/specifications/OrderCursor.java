@@ -0,0 +1,44 @@
+package kz.bars.order_service.domain.specifications;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Позиция последнего заказа страницы для выборки следующей страницы по курсору.
+ * Клиенту курсор передаётся в непрозрачном виде (Base64 URL), его содержимое не является частью API.
+ *
+ * @param sort       ключ сортировки, с которым получен курсор
+ * @param totalPrice стоимость последнего заказа страницы (для сортировки TOTAL_PRICE)
+ * @param orderId    ID последнего заказа страницы
+ */
+public record OrderCursor(OrderSort sort, BigDecimal totalPrice, UUID orderId) {
+
+    private static final String SEPARATOR = "|"; // Разделитель полей курсора
+
+    /**
+     * Непрозрачное строковое представление курсора.
+     */
+    public String encode() {
+        String value = sort.name() + SEPARATOR + (totalPrice != null ? totalPrice.toPlainString() : "") + SEPARATOR + orderId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Разбор курсора, полученного от клиента.
+     *
+     * @param cursor строковое представление курсора
+     * @return курсор
+     * @throws IllegalArgumentException если курсор повреждён
+     */
+    public static OrderCursor decode(String cursor) {
+        String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Invalid cursor format");
+        }
+        return new OrderCursor(OrderSort.valueOf(parts[0]),
+                parts[1].isEmpty() ? null : new BigDecimal(parts[1]),
+                UUID.fromString(parts[2]));
+    }
+}
@@ -0,0 +1,25 @@
+package kz.bars.order_service.domain.specifications;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * Ключ сортировки для постраничной выборки заказов по курсору (keyset pagination).
+ * Последним ключом сортировки всегда идёт order_id, поэтому порядок однозначен
+ * и курсор указывает на точную позицию даже при одинаковых значениях основного ключа.
+ */
+public enum OrderSort {
+    ORDER_ID,   // По идентификатору заказа
+    TOTAL_PRICE; // По общей стоимости, затем по идентификатору
+
+    /**
+     * Сортировка Spring Data для ключа.
+     *
+     * @return сортировка по возрастанию
+     */
+    public Sort toSort() {
+        return switch (this) {
+            case ORDER_ID -> Sort.by("orderId");
+            case TOTAL_PRICE -> Sort.by("totalPrice", "orderId");
+        };
+    }
+}
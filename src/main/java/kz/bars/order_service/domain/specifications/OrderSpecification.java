@@ -5,6 +5,7 @@ import org.springframework.data.jpa.domain.Specification;
 import jakarta.persistence.criteria.*;
 
 import java.math.BigDecimal;
+import java.util.UUID;
 
 /**
  * Класс для динамической фильтрации заказов с использованием Spring Data JPA Specification.
@@ -40,4 +41,37 @@ public class OrderSpecification {
         return (Root<Order> root, CriteriaQuery<?> query, CriteriaBuilder cb) ->
                 maxPrice != null ? cb.lessThanOrEqualTo(root.get("totalPrice"), maxPrice) : cb.conjunction();
     }
+
+    /**
+     * Исключает мягко удалённые заказы.
+     * Фильтр выполняется в базе данных, поэтому страница не укорачивается удалёнными заказами.
+     * @return спецификация для фильтрации
+     */
+    public static Specification<Order> isNotDeleted() {
+        return (Root<Order> root, CriteriaQuery<?> query, CriteriaBuilder cb) ->
+                cb.isFalse(root.get("deleted"));
+    }
+
+    /**
+     * Заказы, следующие за позицией курсора в порядке его ключа сортировки (keyset pagination).
+     * В отличие от OFFSET, стоимость запроса не зависит от номера страницы:
+     * база данных сразу переходит к позиции по индексу.
+     * @param cursor курсор последнего заказа предыдущей страницы (может быть null - первая страница)
+     * @return спецификация для фильтрации
+     */
+    public static Specification<Order> after(OrderCursor cursor) {
+        return (Root<Order> root, CriteriaQuery<?> query, CriteriaBuilder cb) -> {
+            if (cursor == null) {
+                return cb.conjunction();
+            }
+            Predicate afterId = cb.greaterThan(root.<UUID>get("orderId"), cursor.orderId());
+            if (cursor.sort() == OrderSort.ORDER_ID) {
+                return afterId;
+            }
+            // (total_price, order_id) > (:price, :id)
+            return cb.or(
+                    cb.greaterThan(root.<BigDecimal>get("totalPrice"), cursor.totalPrice()),
+                    cb.and(cb.equal(root.get("totalPrice"), cursor.totalPrice()), afterId));
+        };
+    }
 }
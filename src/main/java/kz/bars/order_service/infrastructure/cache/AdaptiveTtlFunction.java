@@ -0,0 +1,41 @@
+package kz.bars.order_service.infrastructure.cache;
+
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+
+/**
+ * TTL записи Redis, зависящий от популярности ключа.
+ * Обычные ключи живут базовое время, а ключи, к которым недавно обращались не реже порога,
+ * получают увеличенный TTL, чтобы популярные записи не истекали одновременно с редкими.
+ */
+public class AdaptiveTtlFunction implements RedisCacheWriter.TtlFunction {
+
+    private final String cacheName;
+    private final HotKeyTracker hotKeyTracker;
+    private final Duration ttl; // TTL обычной записи
+    private final Duration hotTtl; // TTL популярной записи
+    private final long hotThreshold; // Минимальная оценка частоты популярного ключа
+
+    /**
+     * Конструктор функции TTL.
+     *
+     * @param cacheName     имя кэша
+     * @param hotKeyTracker учёт частоты обращений
+     * @param ttl           TTL обычной записи
+     * @param hotTtl        TTL популярной записи
+     * @param hotThreshold  минимальная оценка частоты популярного ключа
+     */
+    public AdaptiveTtlFunction(String cacheName, HotKeyTracker hotKeyTracker, Duration ttl, Duration hotTtl, long hotThreshold) {
+        this.cacheName = cacheName;
+        this.hotKeyTracker = hotKeyTracker;
+        this.ttl = ttl;
+        this.hotTtl = hotTtl;
+        this.hotThreshold = hotThreshold;
+    }
+
+    @Override
+    public Duration getTimeToLive(Object key, Object value) {
+        return hotKeyTracker.estimate(cacheName, key) >= hotThreshold ? hotTtl : ttl;
+    }
+}
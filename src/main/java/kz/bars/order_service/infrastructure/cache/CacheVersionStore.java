@@ -0,0 +1,24 @@
+package kz.bars.order_service.infrastructure.cache;
+
+/**
+ * Хранилище версий (поколений) групп кэшированных данных.
+ * Версия группы входит в ключ кэша, поэтому увеличение версии делает все старые записи группы
+ * недостижимыми без их поиска и удаления; они исчезают сами по истечении TTL.
+ */
+public interface CacheVersionStore {
+
+    /**
+     * Возвращает текущую версию группы.
+     *
+     * @param group имя группы
+     * @return версия группы (0, если группа ещё не изменялась)
+     */
+    long currentVersion(String group);
+
+    /**
+     * Увеличивает версию группы, инвалидируя все записи, построенные на предыдущей версии.
+     *
+     * @param group имя группы
+     */
+    void increment(String group);
+}
@@ -0,0 +1,54 @@
+package kz.bars.order_service.infrastructure.cache;
+
+import kz.bars.order_service.domain.models.Role;
+import kz.bars.order_service.domain.models.User;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Неизменяемый снимок пользователя и его ролей, хранящийся в локальном кэше.
+ * Не связан с persistence context, поэтому безопасен для совместного использования потоками.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CachedUser {
+
+    /**
+     * Имя пользователя.
+     */
+    private final String username;
+
+    /**
+     * Хеш пароля пользователя.
+     */
+    private final String password;
+
+    /**
+     * Признак того, активен ли пользователь.
+     */
+    private final boolean enabled;
+
+    /**
+     * Роли пользователя (копии, не связанные с persistence context).
+     */
+    private final List<Role> roles;
+
+    /**
+     * Создаёт снимок из сущности User с загруженными ролями.
+     *
+     * @param user сущность пользователя
+     * @return снимок пользователя
+     */
+    public static CachedUser from(User user) {
+        return new CachedUser(
+                user.getUsername(),
+                user.getPassword(),
+                user.isEnabled(),
+                user.getRoles().stream()
+                        .map(role -> new Role(role.getId(), role.getName()))
+                        .toList()
+        );
+    }
+}
@@ -0,0 +1,119 @@
+package kz.bars.order_service.infrastructure.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import kz.bars.order_service.presentation.dto.OrderResponse;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Компактный бинарный сериализатор значений Redis на основе Smile (бинарный JSON Jackson).
+ * <p>
+ * Формат значения: байт версии формата, байт типа значения и тело в Smile.
+ * Для известных типов (OrderResponse и список OrderResponse) тип задаётся байтом,
+ * поэтому в теле нет метаданных "@class", а BigDecimal и UUID кодируются без строк JSON.
+ * Остальные значения (например, маркер null-значения кэша) сохраняются в JSON
+ * сериализатором по умолчанию с тем же заголовком.
+ * <p>
+ * Значения без заголовка (записанные ранее в JSON) считаются промахом кэша: прежний JSON
+ * не содержал типа значения и читался как LinkedHashMap, поэтому такие записи просто
+ * перечитываются из базы данных и перезаписываются в новом формате. Очистка кэша не требуется.
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    private static final byte FORMAT_VERSION = 1; // Версия формата; не совпадает с первым байтом JSON
+
+    private static final byte TYPE_JSON = 0; // Значение произвольного типа в JSON
+    private static final byte TYPE_ORDER_RESPONSE = 1; // OrderResponse
+    private static final byte TYPE_ORDER_RESPONSE_LIST = 2; // Список OrderResponse
+
+    private static final int HEADER_LENGTH = 2; // Версия формата и тип значения
+
+    private final ObjectMapper smileMapper;
+    private final JavaType orderResponseListType;
+    private final GenericJackson2JsonRedisSerializer jsonSerializer; // Значения прочих типов
+
+    /**
+     * Конструктор сериализатора.
+     *
+     * @param jsonSerializer сериализатор JSON для значений прочих типов
+     */
+    public CompactRedisSerializer(GenericJackson2JsonRedisSerializer jsonSerializer) {
+        this.jsonSerializer = jsonSerializer;
+        this.smileMapper = SmileMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        this.orderResponseListType = smileMapper.getTypeFactory().constructType(new TypeReference<List<OrderResponse>>() {
+        });
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+
+        byte type = typeOf(value);
+        try {
+            byte[] body = type == TYPE_JSON
+                    ? jsonSerializer.serialize(value)
+                    : smileMapper.writeValueAsBytes(value);
+
+            byte[] bytes = new byte[HEADER_LENGTH + body.length];
+            bytes[0] = FORMAT_VERSION;
+            bytes[1] = type;
+            System.arraycopy(body, 0, bytes, HEADER_LENGTH, body.length);
+            return bytes;
+        } catch (IOException e) {
+            throw new SerializationException("Could not write compact value: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != FORMAT_VERSION) {
+            return null; // Значение записано до перехода на компактный формат - считаем промахом
+        }
+        if (bytes.length < HEADER_LENGTH) {
+            throw new SerializationException("Could not read compact value: header is truncated");
+        }
+
+        try {
+            return switch (bytes[1]) {
+                case TYPE_JSON -> jsonSerializer.deserialize(Arrays.copyOfRange(bytes, HEADER_LENGTH, bytes.length));
+                case TYPE_ORDER_RESPONSE -> smileMapper.readValue(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH, OrderResponse.class);
+                case TYPE_ORDER_RESPONSE_LIST -> smileMapper.readValue(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH, orderResponseListType);
+                default -> throw new SerializationException("Could not read compact value: unknown type " + bytes[1]);
+            };
+        } catch (IOException e) {
+            throw new SerializationException("Could not read compact value: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Определяет байт типа значения.
+     * Список считается списком OrderResponse, только если все его элементы - OrderResponse.
+     */
+    private static byte typeOf(Object value) {
+        if (value instanceof OrderResponse) {
+            return TYPE_ORDER_RESPONSE;
+        }
+        if (value instanceof List<?> list && list.stream().allMatch(OrderResponse.class::isInstance)) {
+            return TYPE_ORDER_RESPONSE_LIST;
+        }
+        return TYPE_JSON;
+    }
+}
@@ -0,0 +1,89 @@
+package kz.bars.order_service.infrastructure.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Потокобезопасный count-min sketch для приблизительного подсчёта частоты строковых ключей.
+ * Занимает фиксированную память независимо от количества ключей; оценка частоты
+ * никогда не занижается и может быть завышена из-за коллизий.
+ */
+public class CountMinSketch {
+
+    private final AtomicLongArray counters; // Счётчики всех строк подряд
+    private final int width;                // Количество счётчиков в строке
+    private final int depth;                // Количество строк (хеш-функций)
+
+    /**
+     * Создаёт sketch заданного размера.
+     *
+     * @param width количество счётчиков в строке (точность оценки)
+     * @param depth количество строк (вероятность точной оценки)
+     */
+    public CountMinSketch(int width, int depth) {
+        this.width = Math.max(width, 16);
+        this.depth = Math.max(depth, 1);
+        this.counters = new AtomicLongArray(this.width * this.depth);
+    }
+
+    /**
+     * Увеличивает счётчик ключа и возвращает новую оценку его частоты.
+     */
+    public long increment(String key) {
+        long hash1 = hash(key);
+        long hash2 = mix(hash1);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(index(row, hash1, hash2)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Оценка частоты ключа.
+     */
+    public long estimate(String key) {
+        long hash1 = hash(key);
+        long hash2 = mix(hash1);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(row, hash1, hash2)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Уменьшает все счётчики вдвое, чтобы старые обращения постепенно теряли вес.
+     */
+    public void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.getAndUpdate(i, value -> value >>> 1);
+        }
+    }
+
+    private int index(int row, long hash1, long hash2) {
+        return row * width + (int) Long.remainderUnsigned(hash1 + row * hash2, width);
+    }
+
+    /**
+     * 64-битный хеш FNV-1a по байтам ключа в UTF-8.
+     */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Второй независимый хеш (перемешивание SplitMix64) для схемы двойного хеширования.
+     */
+    private static long mix(long value) {
+        long z = value + 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return (z ^ (z >>> 31)) | 1L; // Нечётный шаг, чтобы строки не совпадали
+    }
+}
@@ -0,0 +1,159 @@
+package kz.bars.order_service.infrastructure.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Учёт частоты обращений к ключам кэшей.
+ * Частота оценивается count-min sketch (фиксированная память на кэш), а самые популярные ключи
+ * каждого кэша хранятся в небольшом списке top-K. Счётчики периодически уменьшаются вдвое,
+ * поэтому оценка отражает недавнюю, а не накопленную за всё время популярность.
+ * <p>
+ * Используется для адаптивного TTL, упреждающего обновления и прогрева кэша.
+ */
+@Component
+public class HotKeyTracker {
+
+    /**
+     * Популярный ключ и оценка частоты обращений к нему.
+     *
+     * @param key   ключ кэша в строковом виде
+     * @param count оценка количества недавних обращений
+     */
+    public record HotKey(String key, long count) {
+    }
+
+    private final int width; // Ширина count-min sketch
+    private final int depth; // Глубина count-min sketch
+    private final int topSize; // Количество отслеживаемых популярных ключей на кэш
+    private final Map<String, CacheStats> caches = new ConcurrentHashMap<>();
+
+    /**
+     * Конструктор с внедрением значений из application.yml.
+     *
+     * @param width   ширина count-min sketch
+     * @param depth   глубина count-min sketch
+     * @param topSize количество отслеживаемых популярных ключей на кэш
+     */
+    public HotKeyTracker(
+            @Value("${cache.hot-keys.sketch-width:4096}") int width,
+            @Value("${cache.hot-keys.sketch-depth:4}") int depth,
+            @Value("${cache.hot-keys.top-size:100}") int topSize) {
+        this.width = width;
+        this.depth = depth;
+        this.topSize = topSize;
+    }
+
+    /**
+     * Учитывает обращение к ключу.
+     *
+     * @param cacheName имя кэша
+     * @param key       ключ
+     */
+    public void record(String cacheName, Object key) {
+        caches.computeIfAbsent(cacheName, name -> new CacheStats(width, depth, topSize)).record(String.valueOf(key));
+    }
+
+    /**
+     * Оценка количества недавних обращений к ключу.
+     *
+     * @param cacheName имя кэша
+     * @param key       ключ
+     * @return оценка частоты (0, если к кэшу не обращались)
+     */
+    public long estimate(String cacheName, Object key) {
+        CacheStats stats = caches.get(cacheName);
+        return stats != null ? stats.sketch.estimate(String.valueOf(key)) : 0L;
+    }
+
+    /**
+     * Самые популярные ключи кэша по убыванию частоты.
+     *
+     * @param cacheName имя кэша
+     * @param limit     максимальное количество ключей
+     * @return список популярных ключей
+     */
+    public List<HotKey> top(String cacheName, int limit) {
+        CacheStats stats = caches.get(cacheName);
+        if (stats == null) {
+            return List.of();
+        }
+        synchronized (stats.top) {
+            return stats.top.entrySet().stream()
+                    .map(entry -> new HotKey(entry.getKey(), entry.getValue()))
+                    .sorted(Comparator.comparingLong(HotKey::count).reversed())
+                    .limit(limit)
+                    .toList();
+        }
+    }
+
+    /**
+     * Имена кэшей, по которым накоплена статистика.
+     */
+    public List<String> cacheNames() {
+        return List.copyOf(caches.keySet());
+    }
+
+    /**
+     * Периодически уменьшает все счётчики вдвое.
+     */
+    @Scheduled(fixedDelayString = "${cache.hot-keys.decay-interval:60000}")
+    public void decay() {
+        caches.values().forEach(CacheStats::decay);
+    }
+
+    /**
+     * Статистика одного кэша: sketch и список популярных ключей.
+     */
+    private static final class CacheStats {
+
+        private final CountMinSketch sketch;
+        private final Map<String, Long> top = new HashMap<>(); // Популярные ключи и их оценки, доступ под synchronized
+        private final int topSize;
+        private volatile long threshold; // Минимальная оценка в заполненном списке; ниже неё список не проверяется
+
+        private CacheStats(int width, int depth, int topSize) {
+            this.sketch = new CountMinSketch(width, depth);
+            this.topSize = topSize;
+        }
+
+        private void record(String key) {
+            long estimate = sketch.increment(key);
+            if (estimate <= threshold) {
+                return; // Основной случай: ключ заведомо не входит в top-K, блокировка не нужна
+            }
+            synchronized (top) {
+                if (top.containsKey(key) || top.size() < topSize) {
+                    top.put(key, estimate);
+                } else {
+                    Map.Entry<String, Long> min = top.entrySet().stream()
+                            .min(Map.Entry.comparingByValue())
+                            .orElseThrow();
+                    if (estimate > min.getValue()) {
+                        top.remove(min.getKey());
+                        top.put(key, estimate);
+                    }
+                }
+                if (top.size() >= topSize) {
+                    threshold = top.values().stream().mapToLong(Long::longValue).min().orElse(0L);
+                }
+            }
+        }
+
+        private void decay() {
+            sketch.decay();
+            synchronized (top) {
+                top.replaceAll((key, count) -> count >>> 1);
+                top.values().removeIf(count -> count == 0); // Забытые ключи освобождают место
+                threshold = top.size() >= topSize ? threshold >>> 1 : 0L;
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package kz.bars.order_service.infrastructure.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Хранилище версий в памяти одного узла.
+ * Используется, когда кэш не разделяется между узлами (например, в тестовом профиле).
+ */
+public class LocalCacheVersionStore implements CacheVersionStore {
+
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    @Override
+    public long currentVersion(String group) {
+        AtomicLong version = versions.get(group);
+        return version != null ? version.get() : 0L;
+    }
+
+    @Override
+    public void increment(String group) {
+        versions.computeIfAbsent(group, key -> new AtomicLong()).incrementAndGet();
+    }
+}
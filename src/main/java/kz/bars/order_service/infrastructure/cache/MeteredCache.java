@@ -0,0 +1,159 @@
+package kz.bars.order_service.infrastructure.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Кэш с метриками Micrometer по имени кэша, как его видит вызывающий код
+ * (с учётом L1, Redis и автоматического выключателя).
+ * <p>
+ * Метрики:
+ * <ul>
+ *     <li>cache.requests{cache, result=hit|miss} - чтения с попаданием и промахом;</li>
+ *     <li>cache.writes{cache, operation=put|evict|clear} - записи, удаления и очистки;</li>
+ *     <li>cache.latency{cache, operation=get|put|evict} - время чтения, записи и удаления.</li>
+ * </ul>
+ * Размер сериализованных значений считает {@link MeteredRedisCacheWriter}.
+ * Каждое чтение учитывается в HotKeyTracker для отчёта о популярных ключах и адаптивного TTL.
+ */
+public class MeteredCache implements Cache {
+
+    private final Cache delegate;
+    private final HotKeyTracker hotKeyTracker; // Учёт частоты обращений к ключам
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter puts;
+    private final Counter evictions;
+    private final Counter clears;
+    private final Timer getLatency;
+    private final Timer putLatency;
+    private final Timer evictLatency;
+
+    /**
+     * Конструктор кэша с метриками.
+     *
+     * @param delegate      кэш, к которому добавляются метрики
+     * @param meterRegistry реестр метрик
+     * @param hotKeyTracker учёт частоты обращений к ключам
+     */
+    public MeteredCache(Cache delegate, MeterRegistry meterRegistry, HotKeyTracker hotKeyTracker) {
+        this.delegate = delegate;
+        this.hotKeyTracker = hotKeyTracker;
+        String name = delegate.getName();
+        this.hits = requests(meterRegistry, name, "hit");
+        this.misses = requests(meterRegistry, name, "miss");
+        this.puts = writes(meterRegistry, name, "put");
+        this.evictions = writes(meterRegistry, name, "evict");
+        this.clears = writes(meterRegistry, name, "clear");
+        this.getLatency = latency(meterRegistry, name, "get");
+        this.putLatency = latency(meterRegistry, name, "put");
+        this.evictLatency = latency(meterRegistry, name, "evict");
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        hotKeyTracker.record(getName(), key);
+        ValueWrapper wrapper = getLatency.record(() -> delegate.get(key));
+        (wrapper != null ? hits : misses).increment();
+        return wrapper;
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        hotKeyTracker.record(getName(), key);
+        T value = getLatency.record(() -> delegate.get(key, type));
+        (value != null ? hits : misses).increment();
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        hotKeyTracker.record(getName(), key);
+        AtomicBoolean loaded = new AtomicBoolean(); // Загрузчик вызывается только при промахе
+        T value = getLatency.record(() -> delegate.get(key, () -> {
+            loaded.set(true);
+            return valueLoader.call();
+        }));
+        (loaded.get() ? misses : hits).increment();
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        putLatency.record(() -> delegate.put(key, value));
+        puts.increment();
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = putLatency.record((Supplier<ValueWrapper>) () -> delegate.putIfAbsent(key, value));
+        if (existing == null) {
+            puts.increment();
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictLatency.record(() -> delegate.evict(key));
+        evictions.increment();
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = Boolean.TRUE.equals(evictLatency.record((Supplier<Boolean>) () -> delegate.evictIfPresent(key)));
+        evictions.increment();
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        clears.increment();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean present = delegate.invalidate();
+        clears.increment();
+        return present;
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String name, String result) {
+        return Counter.builder("cache.requests")
+                .description("Cache reads by result") // Описание метрики
+                .tags("cache", name, "result", result)
+                .register(meterRegistry);
+    }
+
+    private static Counter writes(MeterRegistry meterRegistry, String name, String operation) {
+        return Counter.builder("cache.writes")
+                .description("Cache puts, evictions and clears") // Описание метрики
+                .tags("cache", name, "operation", operation)
+                .register(meterRegistry);
+    }
+
+    private static Timer latency(MeterRegistry meterRegistry, String name, String operation) {
+        return Timer.builder("cache.latency")
+                .description("Cache operation latency") // Описание метрики
+                .tags("cache", name, "operation", operation)
+                .publishPercentileHistogram() // Гистограмма для расчёта p99 в Prometheus
+                .register(meterRegistry);
+    }
+}
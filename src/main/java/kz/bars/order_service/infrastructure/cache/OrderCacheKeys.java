@@ -0,0 +1,84 @@
+package kz.bars.order_service.infrastructure.cache;
+
+import kz.bars.order_service.domain.models.Order;
+import kz.bars.order_service.domain.specifications.OrderSort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Ключи кэша "orderResponses" для выборок заказов и их инвалидация по версиям.
+ * <p>
+ * Выборки кэшируются постранично: ключ включает фильтры, сортировку, размер страницы и курсор.
+ * Каждому статусу заказа соответствует своя группа версий, а выборки без фильтра по статусу
+ * зависят от общей группы "ALL". Версия входит в ключ выборки, поэтому изменение заказа
+ * инвалидирует только выборки затронутых статусов, не трогая отдельные заказы
+ * и выборки по другим статусам.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderCacheKeys {
+
+    /**
+     * Имя кэша заказов и выборок в формате DTO.
+     */
+    public static final String CACHE_NAME = "orderResponses";
+
+    private static final String ALL = "ALL"; // Группа выборок без фильтра по статусу
+    private static final String GROUP_PREFIX = "orders:"; // Префикс групп версий выборок заказов
+
+    private final CacheVersionStore cacheVersionStore;
+
+    /**
+     * Ключ страницы выборки заказов с учётом текущей версии группы.
+     * Используется при чтении выборок из кэша в OrderService.
+     *
+     * @param status   статус заказа (может быть null)
+     * @param minPrice минимальная цена (может быть null)
+     * @param maxPrice максимальная цена (может быть null)
+     * @param sort     ключ сортировки
+     * @param limit    размер страницы
+     * @param cursor   курсор страницы (может быть null - первая страница)
+     * @return ключ кэша
+     */
+    public String filtered(Order.Status status, BigDecimal minPrice, BigDecimal maxPrice,
+                           OrderSort sort, int limit, String cursor) {
+        String group = status != null ? status.name() : ALL;
+        return "filtered:" + group + ":v" + cacheVersionStore.currentVersion(GROUP_PREFIX + group)
+                + ":" + minPrice + ":" + maxPrice + ":" + sort + ":" + limit + ":" + (cursor != null ? cursor : "");
+    }
+
+    /**
+     * Инвалидирует выборки, в которые попадает заказ с указанными статусами
+     * (например, старым и новым при смене статуса), и выборки без фильтра по статусу.
+     * Внутри транзакции версии увеличиваются после её фиксации, чтобы параллельный запрос
+     * не закэшировал под новой версией ещё не зафиксированные данные.
+     *
+     * @param statuses статусы изменённого заказа
+     */
+    public void invalidateFiltered(Order.Status... statuses) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    incrementVersions(statuses);
+                }
+            });
+        } else {
+            incrementVersions(statuses);
+        }
+    }
+
+    private void incrementVersions(Order.Status... statuses) {
+        Arrays.stream(statuses)
+                .filter(Objects::nonNull)
+                .distinct()
+                .forEach(status -> cacheVersionStore.increment(GROUP_PREFIX + status.name()));
+        cacheVersionStore.increment(GROUP_PREFIX + ALL);
+    }
+}
@@ -0,0 +1,94 @@
+package kz.bars.order_service.infrastructure.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Негативный кэш заказов: отметки (tombstones) для ID несуществующих и удалённых заказов.
+ * Повторные запросы к таким ID (сканеры, клиенты с повторными попытками) получают 404
+ * из кэша без обращения к базе данных. Отметки живут недолго (cache.tombstones.ttl)
+ * и удаляются при создании заказа с тем же ID.
+ * <p>
+ * Метрики: cache.tombstones.lookups{result=hit|miss}, cache.tombstones.puts, cache.tombstones.evictions.
+ */
+@Component
+public class OrderTombstones {
+
+    /**
+     * Имя кэша отметок.
+     */
+    public static final String CACHE_NAME = "orderTombstones";
+
+    private final CacheManager cacheManager;
+    private final Counter hitCounter; // Запросы, отклонённые по отметке
+    private final Counter missCounter; // Запросы без отметки
+    private final Counter putCounter; // Поставленные отметки
+    private final Counter evictionCounter; // Снятые отметки
+
+    /**
+     * Конструктор негативного кэша.
+     *
+     * @param cacheManager  менеджер кэшей
+     * @param meterRegistry реестр метрик
+     */
+    public OrderTombstones(CacheManager cacheManager, MeterRegistry meterRegistry) {
+        this.cacheManager = cacheManager;
+        this.hitCounter = lookupCounter(meterRegistry, "hit");
+        this.missCounter = lookupCounter(meterRegistry, "miss");
+        this.putCounter = Counter.builder("cache.tombstones.puts")
+                .description("Number of tombstones stored for missing or deleted orders") // Описание метрики
+                .register(meterRegistry);
+        this.evictionCounter = Counter.builder("cache.tombstones.evictions")
+                .description("Number of tombstones removed on order creation") // Описание метрики
+                .register(meterRegistry);
+    }
+
+    /**
+     * Проверяет, отмечен ли заказ как несуществующий или удалённый.
+     *
+     * @param orderId ID заказа
+     * @return true, если для заказа есть отметка
+     */
+    public boolean contains(UUID orderId) {
+        boolean present = cache().get(orderId) != null;
+        (present ? hitCounter : missCounter).increment();
+        return present;
+    }
+
+    /**
+     * Отмечает заказ как несуществующий или удалённый.
+     *
+     * @param orderId ID заказа
+     */
+    public void put(UUID orderId) {
+        cache().put(orderId, Boolean.TRUE);
+        putCounter.increment();
+    }
+
+    /**
+     * Снимает отметку с заказа (при создании заказа с этим ID).
+     *
+     * @param orderId ID заказа
+     */
+    public void evict(UUID orderId) {
+        if (cache().evictIfPresent(orderId)) {
+            evictionCounter.increment();
+        }
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(CACHE_NAME);
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("cache.tombstones.lookups")
+                .description("Number of order lookups checked against tombstones") // Описание метрики
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,83 @@
+package kz.bars.order_service.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import kz.bars.order_service.infrastructure.resilience.RedisCircuitBreaker;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Хранилище версий в Redis, общее для всех узлов.
+ * Версия увеличивается атомарной командой INCR. Чтобы формирование ключа кэша не стоило
+ * сетевого обращения на каждый запрос, версии зеркалируются локально с коротким TTL:
+ * другой узел увидит новую версию не позже, чем через это время.
+ * <p>
+ * Пока Redis недоступен, версии увеличиваются локально, а отложенные увеличения
+ * выполняются в Redis после его восстановления.
+ */
+public class RedisCacheVersionStore implements CacheVersionStore {
+
+    private static final String KEY_PREFIX = "cache:version:"; // Префикс ключей версий в Redis
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final Cache<String, Long> localVersions; // Локальное зеркало версий
+    private final Map<String, Long> lastKnownVersions = new ConcurrentHashMap<>(); // Последние известные версии без TTL
+    private final Set<String> pendingIncrements = ConcurrentHashMap.newKeySet(); // Группы, увеличенные без Redis
+
+    /**
+     * Конструктор хранилища версий.
+     *
+     * @param redisTemplate  шаблон Redis
+     * @param circuitBreaker автоматический выключатель Redis
+     * @param localTtl       время жизни версии в локальном зеркале
+     */
+    public RedisCacheVersionStore(RedisTemplate<String, String> redisTemplate, RedisCircuitBreaker circuitBreaker, Duration localTtl) {
+        this.redisTemplate = redisTemplate;
+        this.circuitBreaker = circuitBreaker;
+        circuitBreaker.onRecovery(this::replayPendingIncrements);
+        this.localVersions = Caffeine.newBuilder()
+                .expireAfterWrite(localTtl)
+                .build();
+    }
+
+    @Override
+    public long currentVersion(String group) {
+        return localVersions.get(group, key -> circuitBreaker.execute("version.get", () -> {
+            String value = redisTemplate.opsForValue().get(KEY_PREFIX + key);
+            long version = value != null ? Long.parseLong(value) : 0L;
+            lastKnownVersions.merge(key, version, Math::max);
+            return lastKnownVersions.get(key);
+        }, () -> lastKnownVersions.getOrDefault(key, 0L)));
+    }
+
+    @Override
+    public void increment(String group) {
+        Long version = circuitBreaker.execute("version.increment",
+                () -> redisTemplate.opsForValue().increment(KEY_PREFIX + group),
+                () -> {
+                    pendingIncrements.add(group); // Увеличим в Redis после восстановления
+                    return currentVersion(group) + 1;
+                });
+        if (version != null) {
+            lastKnownVersions.merge(group, version, Math::max);
+            localVersions.put(group, lastKnownVersions.get(group)); // Текущий узел видит новую версию сразу
+        } else {
+            localVersions.invalidate(group);
+        }
+    }
+
+    /**
+     * Выполняет в Redis увеличения версий, сделанные локально во время недоступности Redis.
+     */
+    private void replayPendingIncrements() {
+        for (String group : Set.copyOf(pendingIncrements)) {
+            pendingIncrements.remove(group);
+            increment(group);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package kz.bars.order_service.infrastructure.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import kz.bars.order_service.infrastructure.resilience.RedisCircuitBreaker;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Объединение одновременных промахов кэша по одному ключу (single flight).
+ * <p>
+ * При промахе только первый запрос (лидер) загружает значение и кладёт его в кэш,
+ * остальные запросы того же ключа на этом узле ожидают его результат не дольше lockTimeout,
+ * после чего загружают значение сами.
+ * В распределённом режиме лидер дополнительно берёт короткую блокировку в Redis:
+ * если её уже держит другой узел, лидер ждёт появления значения в кэше
+ * и загружает его сам только по истечении ожидания. Пока Redis недоступен, блокировка не используется.
+ * <p>
+ * Метрика cache.coalescing.requests{cache, result} считает загрузки (loaded),
+ * запросы, дождавшиеся локального лидера (coalesced), запросы, не дождавшиеся его (timeout),
+ * и запросы, получившие значение, загруженное другим узлом (remote).
+ */
+@Component
+@Log4j2
+public class RequestCoalescer {
+
+    private static final String LOCK_PREFIX = "cache:lock:"; // Префикс ключей блокировок загрузки в Redis
+    private static final long POLL_INTERVAL_MILLIS = 20; // Интервал проверки кэша при ожидании другого узла
+
+    // Снимает блокировку, только если она всё ещё принадлежит этому узлу
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final boolean distributed; // Использовать блокировку в Redis между узлами
+    private final Duration lockTimeout; // Время жизни блокировки и максимальное ожидание другого узла
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>(); // Текущие загрузки по ключам
+
+    /**
+     * Конструктор с внедрением значений из application.yml.
+     *
+     * @param tokenRedisTemplate шаблон Redis для распределённой блокировки
+     * @param meterRegistry      реестр метрик
+     * @param circuitBreaker     автоматический выключатель Redis
+     * @param distributed        использовать блокировку в Redis между узлами
+     * @param lockTimeout        время жизни блокировки и максимальное ожидание другого узла
+     */
+    public RequestCoalescer(
+            RedisTemplate<String, String> tokenRedisTemplate,
+            MeterRegistry meterRegistry,
+            RedisCircuitBreaker circuitBreaker,
+            @Value("${cache.coalescing.distributed:false}") boolean distributed,
+            @Value("${cache.coalescing.lock-timeout:2s}") Duration lockTimeout) {
+        this.redisTemplate = tokenRedisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.circuitBreaker = circuitBreaker;
+        this.distributed = distributed;
+        this.lockTimeout = lockTimeout;
+    }
+
+    /**
+     * Возвращает значение из кэша, а при промахе загружает его ровно одним запросом на ключ.
+     * Исключение или ошибка загрузчика передаются всем ожидающим запросам; в кэш при этом ничего не кладётся.
+     *
+     * @param cache  кэш
+     * @param key    ключ значения
+     * @param loader загрузчик значения из источника данных
+     * @return значение из кэша или загруженное значение
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Cache cache, Object key, Supplier<T> loader) {
+        Cache.ValueWrapper cached = cache.get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+
+        String flightKey = cache.getName() + ":" + key;
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            count(cache, "coalesced");
+            return (T) join(cache, key, existing, loader);
+        }
+
+        try {
+            Object value = load(cache, key, flightKey, loader);
+            flight.complete(value);
+            return (T) value;
+        } catch (Throwable e) {
+            flight.completeExceptionally(e); // Любая ошибка лидера, включая Error, освобождает ожидающих
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    /**
+     * Загрузка значения лидером: при необходимости под распределённой блокировкой.
+     */
+    private Object load(Cache cache, Object key, String flightKey, Supplier<?> loader) {
+        if (!distributed) {
+            return loadAndPut(cache, key, loader);
+        }
+
+        String lockKey = LOCK_PREFIX + flightKey;
+        String lockToken = UUID.randomUUID().toString();
+        if (tryLock(lockKey, lockToken)) {
+            try {
+                return loadAndPut(cache, key, loader);
+            } finally {
+                unlock(lockKey, lockToken);
+            }
+        }
+
+        // Значение загружает другой узел: ждём его появления в кэше
+        long deadline = System.nanoTime() + lockTimeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            sleep();
+            Cache.ValueWrapper cached = cache.get(key);
+            if (cached != null) {
+                count(cache, "remote");
+                return cached.get();
+            }
+            if (!isLocked(lockKey)) {
+                break; // Другой узел завершил загрузку неудачно или значение не кэшируется
+            }
+        }
+        return loadAndPut(cache, key, loader);
+    }
+
+    private Object loadAndPut(Cache cache, Object key, Supplier<?> loader) {
+        count(cache, "loaded");
+        Object value = loader.get();
+        if (value != null && !(value instanceof List<?> list && list.isEmpty())) {
+            cache.put(key, value); // Пустые результаты не кэшируются
+        }
+        return value;
+    }
+
+    private boolean tryLock(String lockKey, String lockToken) {
+        return circuitBreaker.execute("cache.lock",
+                () -> Boolean.TRUE.equals(redisTemplate.opsForValue()
+                        .setIfAbsent(lockKey, lockToken, lockTimeout.toMillis(), TimeUnit.MILLISECONDS)),
+                () -> true); // Redis недоступен - загружаем без распределённой блокировки
+    }
+
+    private boolean isLocked(String lockKey) {
+        return circuitBreaker.execute("cache.lock", () -> Boolean.TRUE.equals(redisTemplate.hasKey(lockKey)), () -> false);
+    }
+
+    private void unlock(String lockKey, String lockToken) {
+        circuitBreaker.run("cache.lock",
+                () -> redisTemplate.execute(RELEASE_SCRIPT, List.of(lockKey), lockToken),
+                () -> log.debug("Cache load lock {} was not released, it will expire", lockKey)); // Блокировка истечёт по TTL
+    }
+
+    private void count(Cache cache, String result) {
+        meterRegistry.counter("cache.coalescing.requests", "cache", cache.getName(), "result", result).increment();
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for cache load", e);
+        }
+    }
+
+    /**
+     * Ожидание результата локального лидера не дольше lockTimeout.
+     * Если лидер не успел, запрос загружает значение сам, не дожидаясь зависшей загрузки.
+     */
+    private Object join(Cache cache, Object key, CompletableFuture<Object> flight, Supplier<?> loader) {
+        try {
+            return flight.get(lockTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            count(cache, "timeout");
+            Cache.ValueWrapper cached = cache.get(key);
+            return cached != null ? cached.get() : loadAndPut(cache, key, loader);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException; // Ошибка лидера (например, 404) возвращается как есть
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Cache load failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for cache load", e);
+        }
+    }
+}
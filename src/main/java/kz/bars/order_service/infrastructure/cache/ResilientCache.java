@@ -0,0 +1,143 @@
+package kz.bars.order_service.infrastructure.cache;
+
+import kz.bars.order_service.infrastructure.resilience.RedisCircuitBreaker;
+import org.springframework.cache.Cache;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кэш Redis за автоматическим выключателем.
+ * Пока Redis недоступен, чтение считается промахом, а запись пропускается,
+ * поэтому запросы обслуживаются из L1 и базы данных без ожидания таймаутов Redis.
+ * <p>
+ * Удаления, которые не удалось выполнить, запоминаются и повторяются после восстановления Redis,
+ * чтобы в L2 не остались устаревшие записи. Если таких ключей слишком много,
+ * после восстановления кэш очищается целиком.
+ */
+public class ResilientCache implements Cache {
+
+    private static final int MAX_PENDING_EVICTIONS = 10_000; // Предел запоминаемых удалений
+
+    private final Cache delegate;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final Set<Object> pendingEvictions = ConcurrentHashMap.newKeySet(); // Ключи, удаление которых отложено
+    private volatile boolean pendingClear; // Кэш нужно очистить после восстановления
+
+    /**
+     * Конструктор кэша за выключателем.
+     *
+     * @param delegate       кэш Redis
+     * @param circuitBreaker автоматический выключатель Redis
+     */
+    public ResilientCache(Cache delegate, RedisCircuitBreaker circuitBreaker) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+        circuitBreaker.onRecovery(this::replayPendingEvictions);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return circuitBreaker.execute("cache.get", () -> delegate.get(key), () -> null);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return circuitBreaker.execute("cache.get", () -> delegate.get(key, type), () -> null);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            @SuppressWarnings("unchecked")
+            T value = (T) wrapper.get();
+            return value;
+        }
+        try {
+            T value = valueLoader.call();
+            put(key, value);
+            return value;
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        circuitBreaker.run("cache.put", () -> delegate.put(key, value), () -> {
+            // Запись пропускается; старое значение в Redis, если оно было, нужно удалить позже
+            deferEviction(key);
+        });
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return circuitBreaker.execute("cache.put", () -> delegate.putIfAbsent(key, value), () -> {
+            deferEviction(key); // Как и в put: запись пропускается, старое значение удаляется позже
+            return null;
+        });
+    }
+
+    @Override
+    public void evict(Object key) {
+        circuitBreaker.run("cache.evict", () -> delegate.evict(key), () -> deferEviction(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return circuitBreaker.execute("cache.evict", () -> delegate.evictIfPresent(key), () -> {
+            deferEviction(key);
+            return false;
+        });
+    }
+
+    @Override
+    public void clear() {
+        circuitBreaker.run("cache.clear", delegate::clear, () -> pendingClear = true);
+    }
+
+    @Override
+    public boolean invalidate() {
+        return circuitBreaker.execute("cache.clear", delegate::invalidate, () -> {
+            pendingClear = true;
+            return false;
+        });
+    }
+
+    private void deferEviction(Object key) {
+        if (pendingEvictions.size() >= MAX_PENDING_EVICTIONS) {
+            pendingClear = true;
+            pendingEvictions.clear();
+        } else {
+            pendingEvictions.add(key);
+        }
+    }
+
+    /**
+     * Повторяет отложенные удаления после восстановления Redis.
+     */
+    private void replayPendingEvictions() {
+        if (pendingClear) {
+            pendingClear = false;
+            pendingEvictions.clear();
+            circuitBreaker.run("cache.clear", delegate::clear, () -> pendingClear = true);
+            return;
+        }
+        for (Object key : Set.copyOf(pendingEvictions)) {
+            pendingEvictions.remove(key);
+            evict(key);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package kz.bars.order_service.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Двухуровневый кэш: локальный Caffeine (L1) перед распределённым кэшем Redis (L2).
+ * Чтение сначала обращается к L1 и только при промахе идёт в Redis, заполняя L1.
+ * Любое изменение записывается в L2, применяется к L1 и рассылается остальным узлам,
+ * чтобы они удалили устаревшую копию из своего L1.
+ * <p>
+ * Ключи L1 приводятся к строке, чтобы совпадать с ключами из сообщений об инвалидации,
+ * полученных от других узлов.
+ */
+public class TwoLevelCache implements org.springframework.cache.Cache {
+
+    private final String name;
+    private final Cache<String, ValueWrapper> localCache; // L1: локальный кэш узла
+    private final org.springframework.cache.Cache remoteCache; // L2: общий кэш в Redis
+    private final TwoLevelCacheManager cacheManager; // Рассылает инвалидацию другим узлам
+
+    /**
+     * Конструктор двухуровневого кэша.
+     *
+     * @param name          имя кэша
+     * @param localCache    локальный кэш Caffeine
+     * @param remoteCache   распределённый кэш Redis
+     * @param cacheManager  менеджер, рассылающий инвалидацию другим узлам
+     */
+    TwoLevelCache(String name,
+                  Cache<String, ValueWrapper> localCache,
+                  org.springframework.cache.Cache remoteCache,
+                  TwoLevelCacheManager cacheManager) {
+        this.name = name;
+        this.localCache = localCache;
+        this.remoteCache = remoteCache;
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remoteCache.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        ValueWrapper wrapper = localCache.getIfPresent(localKey);
+        if (wrapper != null) {
+            return wrapper; // Попадание в L1 - без сетевого обращения
+        }
+
+        wrapper = remoteCache.get(key);
+        if (wrapper != null) {
+            // Снимаем значение с обёртки Redis, чтобы L1 не держал ссылок на внутренние классы L2
+            localCache.put(localKey, new SimpleValueWrapper(wrapper.get()));
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper == null) {
+            return null;
+        }
+        Object value = wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = localCache.get(localKey(key), localKey -> {
+            T value = remoteCache.get(key, valueLoader); // L2 сам вызывает загрузчик при промахе
+            return new SimpleValueWrapper(value);
+        });
+        return wrapper != null ? (T) wrapper.get() : null;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remoteCache.put(key, value);
+        localCache.put(localKey(key), new SimpleValueWrapper(value));
+        cacheManager.publishEvict(name, localKey(key)); // Остальные узлы удаляют устаревшую копию
+    }
+
+    /**
+     * Атомарная запись в L2 (SET NX в Redis): значение, уже записанное другим запросом или узлом,
+     * не перезаписывается, а копируется в L1.
+     */
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remoteCache.putIfAbsent(key, value);
+        if (existing != null) {
+            localCache.put(localKey(key), new SimpleValueWrapper(existing.get()));
+            return existing;
+        }
+        localCache.put(localKey(key), new SimpleValueWrapper(value));
+        cacheManager.publishEvict(name, localKey(key)); // Остальные узлы удаляют устаревшую копию
+        return null;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remoteCache.evict(key);
+        localCache.invalidate(localKey(key));
+        cacheManager.publishEvict(name, localKey(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = remoteCache.evictIfPresent(key);
+        localCache.invalidate(localKey(key));
+        cacheManager.publishEvict(name, localKey(key));
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        remoteCache.clear();
+        localCache.invalidateAll();
+        cacheManager.publishClear(name);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean present = remoteCache.invalidate();
+        localCache.invalidateAll();
+        cacheManager.publishClear(name);
+        return present;
+    }
+
+    /**
+     * Удаляет запись только из локального кэша (по сообщению от другого узла).
+     *
+     * @param localKey ключ записи в строковом виде
+     */
+    void evictLocal(String localKey) {
+        localCache.invalidate(localKey);
+    }
+
+    /**
+     * Очищает только локальный кэш (по сообщению от другого узла).
+     */
+    void clearLocal() {
+        localCache.invalidateAll();
+    }
+
+    /**
+     * Ключ записи в L1 и в сообщениях об инвалидации.
+     */
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,160 @@
+package kz.bars.order_service.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import kz.bars.order_service.infrastructure.resilience.RedisCircuitBreaker;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Менеджер кэшей, добавляющий локальный уровень Caffeine (L1) перед RedisCacheManager (L2).
+ * Двухуровневыми становятся только перечисленные кэши, остальные отдаются из Redis без изменений.
+ * <p>
+ * Инвалидация L1 между узлами выполняется через Redis pub/sub: каждое изменение записи
+ * публикуется в канал {@link #CHANNEL}, и остальные узлы удаляют свою локальную копию.
+ * Собственные сообщения узел распознаёт по идентификатору и пропускает.
+ * <p>
+ * Все кэши Redis отдаются за автоматическим выключателем ({@link ResilientCache}):
+ * пока Redis недоступен, двухуровневые кэши работают только с L1, а остальные - как промах.
+ * Каждый отдаваемый кэш снабжается метриками и учётом популярных ключей ({@link MeteredCache}).
+ */
+@Log4j2
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    /**
+     * Канал Redis pub/sub для рассылки инвалидации локальных кэшей между узлами.
+     */
+    public static final String CHANNEL = "cache:invalidation";
+
+    private static final String EVICT = "evict"; // Операция удаления одной записи
+    private static final String CLEAR = "clear"; // Операция очистки всего кэша
+
+    private final CacheManager remoteCacheManager; // L2: RedisCacheManager
+    private final RedisTemplate<String, String> redisTemplate; // Публикация сообщений об инвалидации
+    private final MeterRegistry meterRegistry;
+    private final HotKeyTracker hotKeyTracker; // Учёт частоты обращений к ключам
+    private final RedisCircuitBreaker circuitBreaker; // Быстрый отказ при недоступности Redis
+    private final Set<String> localCacheNames; // Кэши, для которых включён L1
+    private final Duration localTtl; // Время жизни записи в L1
+    private final long localMaximumSize; // Максимальное количество записей в L1 одного кэша
+    private final String nodeId = UUID.randomUUID().toString(); // Идентификатор узла для отсечения собственных сообщений
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+    private final Map<String, ResilientCache> remoteCaches = new ConcurrentHashMap<>(); // Кэши Redis за выключателем
+    private final Map<String, MeteredCache> meteredCaches = new ConcurrentHashMap<>(); // Отдаваемые кэши с метриками
+
+    /**
+     * Конструктор менеджера двухуровневых кэшей.
+     *
+     * @param remoteCacheManager менеджер распределённых кэшей (L2)
+     * @param redisTemplate      шаблон Redis для публикации сообщений об инвалидации
+     * @param meterRegistry      реестр метрик
+     * @param hotKeyTracker      учёт частоты обращений к ключам
+     * @param circuitBreaker     автоматический выключатель Redis
+     * @param localCacheNames    имена кэшей, для которых включается L1
+     * @param localTtl           время жизни записи в L1
+     * @param localMaximumSize   максимальное количество записей в L1 одного кэша
+     */
+    public TwoLevelCacheManager(CacheManager remoteCacheManager,
+                                RedisTemplate<String, String> redisTemplate,
+                                MeterRegistry meterRegistry,
+                                HotKeyTracker hotKeyTracker,
+                                RedisCircuitBreaker circuitBreaker,
+                                Set<String> localCacheNames,
+                                Duration localTtl,
+                                long localMaximumSize) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.hotKeyTracker = hotKeyTracker;
+        this.circuitBreaker = circuitBreaker;
+        this.localCacheNames = Set.copyOf(localCacheNames);
+        this.localTtl = localTtl;
+        this.localMaximumSize = localMaximumSize;
+    }
+
+    @Override
+    public org.springframework.cache.Cache getCache(String name) {
+        return meteredCaches.computeIfAbsent(name, key -> new MeteredCache(
+                localCacheNames.contains(key) ? caches.computeIfAbsent(key, this::createCache) : remoteCache(key),
+                meterRegistry, hotKeyTracker));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    /**
+     * Получает сообщение об инвалидации от другого узла.
+     * Формат сообщения: "&lt;узел&gt;:&lt;операция&gt;:&lt;кэш&gt;:&lt;ключ&gt;".
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(":", 4);
+        if (parts.length < 4) {
+            log.warn("Unable to process cache invalidation message: invalid format.");
+            return;
+        }
+        if (nodeId.equals(parts[0])) {
+            return; // Собственное сообщение: L1 уже обновлён
+        }
+
+        TwoLevelCache cache = caches.get(parts[2]);
+        if (cache == null) {
+            return; // Кэш ещё не использовался на этом узле, удалять нечего
+        }
+        if (CLEAR.equals(parts[1])) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(parts[3]);
+        }
+    }
+
+    /**
+     * Оповещает остальные узлы об изменении записи.
+     */
+    void publishEvict(String cacheName, String key) {
+        publish(EVICT, cacheName, key);
+    }
+
+    /**
+     * Оповещает остальные узлы об очистке кэша.
+     */
+    void publishClear(String cacheName) {
+        publish(CLEAR, cacheName, "");
+    }
+
+    private void publish(String operation, String cacheName, String key) {
+        // Если Redis недоступен, остальные узлы увидят изменение после истечения TTL L1
+        circuitBreaker.run("cache.publish",
+                () -> redisTemplate.convertAndSend(CHANNEL, nodeId + ":" + operation + ":" + cacheName + ":" + key),
+                () -> log.debug("Cache invalidation for {} was not published: Redis is unavailable", cacheName));
+    }
+
+    private ResilientCache remoteCache(String name) {
+        return remoteCaches.computeIfAbsent(name, key -> new ResilientCache(remoteCacheManager.getCache(key), circuitBreaker));
+    }
+
+    private TwoLevelCache createCache(String name) {
+        Cache<String, org.springframework.cache.Cache.ValueWrapper> localCache = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(localTtl) // Страховка на случай потерянного сообщения об инвалидации
+                .recordStats() // Сбор статистики для метрик
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, name, "level", "l1");
+        return new TwoLevelCache(name, localCache, remoteCache(name), this);
+    }
+}
@@ -0,0 +1,101 @@
+package kz.bars.order_service.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import kz.bars.order_service.domain.models.User;
+import kz.bars.order_service.domain.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Локальный ограниченный кэш пользователей и их ролей на основе Caffeine.
+ * Убирает повторные запросы к таблицам users и user_roles при обработке заказов и аутентификации.
+ * Записи истекают по TTL и явно удаляются при регистрации или изменении ролей пользователя.
+ * Статистика попаданий и промахов публикуется в Micrometer (cache.gets{cache=users}).
+ */
+@Component
+public class UserCache {
+
+    /**
+     * Имя кэша в метриках.
+     */
+    public static final String CACHE_NAME = "users";
+
+    private final UserRepository userRepository;
+    private final Cache<String, CachedUser> cache;
+
+    /**
+     * Конструктор с внедрением значений из application.yml.
+     *
+     * @param userRepository репозиторий пользователей
+     * @param meterRegistry  реестр метрик
+     * @param ttl            время жизни записи
+     * @param maximumSize    максимальное количество записей
+     */
+    public UserCache(
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${cache.users.ttl:5m}") Duration ttl,
+            @Value("${cache.users.maximum-size:10000}") long maximumSize) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats() // Сбор статистики для метрик
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Возвращает пользователя из кэша, при промахе загружает его из базы данных.
+     *
+     * @param username имя пользователя
+     * @return снимок пользователя или пустой Optional, если пользователь не найден
+     */
+    public Optional<CachedUser> get(String username) {
+        return Optional.ofNullable(cache.get(username, key -> userRepository.findWithRolesByUsername(key)
+                .map(CachedUser::from)
+                .orElse(null))); // Отсутствующие пользователи не кэшируются
+    }
+
+    /**
+     * Загружает пользователя из базы данных в обход кэша и обновляет запись в кэше.
+     *
+     * @param username имя пользователя
+     * @return снимок пользователя или пустой Optional, если пользователь не найден
+     */
+    public Optional<CachedUser> reload(String username) {
+        cache.invalidate(username);
+        return get(username);
+    }
+
+    /**
+     * Кладёт в кэш уже загруженного пользователя (например, после входа в систему).
+     *
+     * @param user сущность пользователя с загруженными ролями
+     */
+    public void put(User user) {
+        cache.put(user.getUsername(), CachedUser.from(user));
+    }
+
+    /**
+     * Удаляет пользователя из кэша. Вызывается при регистрации и изменении ролей пользователя.
+     *
+     * @param username имя пользователя
+     */
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+
+    /**
+     * Очищает кэш пользователей полностью (например, при массовом изменении ролей).
+     */
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+}
@@ -2,9 +2,11 @@ package kz.bars.order_service.infrastructure.config;
 
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Configuration
 @EnableAspectJAutoProxy(proxyTargetClass = true) // Включение поддержки AspectJ для обработки аспектов (AOP)
+@EnableScheduling // Включение периодических задач (например, синхронизация черного списка токенов)
 @SuppressWarnings("unused") // Подавляет предупреждения о неиспользуемых методах
 public class AppConfig {
 
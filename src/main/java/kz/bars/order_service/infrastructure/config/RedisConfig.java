@@ -3,25 +3,39 @@ package kz.bars.order_service.infrastructure.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import kz.bars.order_service.domain.models.Order;
+import io.micrometer.core.instrument.MeterRegistry;
+import kz.bars.order_service.infrastructure.cache.AdaptiveTtlFunction;
+import kz.bars.order_service.infrastructure.cache.CacheVersionStore;
+import kz.bars.order_service.infrastructure.cache.CompactRedisSerializer;
+import kz.bars.order_service.infrastructure.cache.HotKeyTracker;
+import kz.bars.order_service.infrastructure.cache.MeteredRedisCacheWriter;
+import kz.bars.order_service.infrastructure.cache.OrderCacheKeys;
+import kz.bars.order_service.infrastructure.cache.OrderTombstones;
+import kz.bars.order_service.infrastructure.cache.RedisCacheVersionStore;
+import kz.bars.order_service.infrastructure.cache.TwoLevelCacheManager;
+import kz.bars.order_service.infrastructure.resilience.RedisCircuitBreaker;
+import kz.bars.order_service.infrastructure.security.TokenBlacklist;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.Set;
 
 @Configuration
 @EnableCaching // Включаем кэширование
@@ -38,10 +52,28 @@ public class RedisConfig {
     @Value("${spring.redis.password}")
     private String redisPassword;
 
+    @Value("${spring.redis.timeout:5000}")
+    private long redisTimeout; // Таймаут команды Redis в миллисекундах
+
+    @Value("${cache.default-ttl:10m}")
+    private Duration defaultTtl; // TTL записей кэшей без собственной настройки
+
+    @Value("${cache.order-responses.ttl:10m}")
+    private Duration orderResponsesTtl; // TTL обычной записи orderResponses
+
+    @Value("${cache.order-responses.hot-ttl:30m}")
+    private Duration orderResponsesHotTtl; // TTL популярной записи orderResponses
+
+    @Value("${cache.order-responses.hot-threshold:20}")
+    private long orderResponsesHotThreshold; // Минимальная частота обращений популярного ключа
+
+    @Value("${cache.tombstones.ttl:30s}")
+    private Duration tombstoneTtl; // TTL отметок о несуществующих и удалённых заказах
+
     @Bean
     public RedisConnectionFactory redisConnectionFactory() {
         LettuceClientConfiguration clientConfig = LettuceClientConfiguration.builder()
-                .commandTimeout(Duration.ofSeconds(5))
+                .commandTimeout(Duration.ofMillis(redisTimeout))
                 .build();
 
         RedisStandaloneConfiguration serverConfig = new RedisStandaloneConfiguration(redisHost, redisPort);
@@ -50,21 +82,6 @@ public class RedisConfig {
         return new LettuceConnectionFactory(serverConfig, clientConfig);
     }
 
-    @Bean
-    public RedisTemplate<String, Order> orderRedisTemplate(RedisConnectionFactory connectionFactory) {
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-
-        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer(objectMapper);
-
-        RedisTemplate<String, Order> template = new RedisTemplate<>();
-        template.setConnectionFactory(connectionFactory);
-        template.setKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(serializer);
-        return template;
-    }
-
     @Bean
     public RedisTemplate<String, String> tokenRedisTemplate(RedisConnectionFactory connectionFactory) {
         RedisTemplate<String, String> template = new RedisTemplate<>();
@@ -75,20 +92,88 @@ public class RedisConfig {
     }
 
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    public CacheVersionStore cacheVersionStore(RedisTemplate<String, String> tokenRedisTemplate,
+                                               RedisCircuitBreaker redisCircuitBreaker,
+                                               @Value("${cache.versions.local-ttl:1s}") Duration localTtl) {
+        return new RedisCacheVersionStore(tokenRedisTemplate, redisCircuitBreaker, localTtl); // Версии выборок общие для всех узлов
+    }
 
-        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer(objectMapper);
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       TokenBlacklist tokenBlacklist,
+                                                                       TwoLevelCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(tokenBlacklist, new ChannelTopic(TokenBlacklist.CHANNEL)); // Синхронизация черного списка токенов между узлами
+        container.addMessageListener(cacheManager, new ChannelTopic(TwoLevelCacheManager.CHANNEL)); // Инвалидация локальных кэшей между узлами
+        return container;
+    }
+
+    @Bean
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                             RedisTemplate<String, String> tokenRedisTemplate,
+                                             MeterRegistry meterRegistry,
+                                             HotKeyTracker hotKeyTracker,
+                                             RedisCircuitBreaker redisCircuitBreaker,
+                                             @Value("${cache.local.names:orderResponses}") Set<String> localCacheNames,
+                                             @Value("${cache.local.ttl:1m}") Duration localTtl,
+                                             @Value("${cache.local.maximum-size:10000}") long localMaximumSize,
+                                             @Value("${cache.codec.compact-caches:orderResponses}") Set<String> compactCacheNames) {
+        // Writer учитывает размер сериализованных значений по кэшам
+        RedisCacheWriter cacheWriter = new MeteredRedisCacheWriter(RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory), meterRegistry);
+        RedisCacheManager redisCacheManager = redisCacheManager(cacheWriter, hotKeyTracker, compactCacheNames);
+
+        // Локальный Caffeine (L1) перед Redis (L2) для часто читаемых кэшей
+        return new TwoLevelCacheManager(redisCacheManager, tokenRedisTemplate, meterRegistry, hotKeyTracker,
+                redisCircuitBreaker, localCacheNames, localTtl, localMaximumSize);
+    }
+
+    /**
+     * RedisCacheManager (L2) с настройками сериализации и TTL по кэшам.
+     * Менеджер не регистрируется как бин, поэтому инициализируется здесь: без afterPropertiesSet()
+     * настройки withCacheConfiguration не применяются, и каждый кэш создаётся с конфигурацией по умолчанию
+     * (JSON без типа значения и TTL по умолчанию).
+     *
+     * @param cacheWriter       writer Redis
+     * @param hotKeyTracker     учёт частоты обращений для адаптивного TTL orderResponses
+     * @param compactCacheNames кэши в компактном формате Smile
+     * @return инициализированный менеджер кэшей Redis
+     */
+    RedisCacheManager redisCacheManager(RedisCacheWriter cacheWriter, HotKeyTracker hotKeyTracker, Set<String> compactCacheNames) {
+        GenericJackson2JsonRedisSerializer jsonSerializer = jsonSerializer();
 
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(10))
+                .entryTtl(defaultTtl)
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer())) // Ключи - строки
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer)); // Значения - JSON
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(jsonSerializer)); // Значения - JSON
 
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(defaultConfig) // Теперь ВСЕ кэши используют JSON
-                .build();
+        // Компактный бинарный формат (Smile) для выбранных кэшей
+        RedisCacheConfiguration compactConfig = defaultConfig
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new CompactRedisSerializer(jsonSerializer)));
+
+        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(cacheWriter)
+                .cacheDefaults(defaultConfig); // Остальные кэши используют JSON
+        compactCacheNames.forEach(name -> builder.withCacheConfiguration(name, compactConfig));
+
+        // Популярные заказы живут дольше обычных, чтобы не истекать одновременно с редкими
+        RedisCacheConfiguration orderResponsesConfig = compactCacheNames.contains(OrderCacheKeys.CACHE_NAME) ? compactConfig : defaultConfig;
+        builder.withCacheConfiguration(OrderCacheKeys.CACHE_NAME, orderResponsesConfig.entryTtl(new AdaptiveTtlFunction(
+                OrderCacheKeys.CACHE_NAME, hotKeyTracker, orderResponsesTtl, orderResponsesHotTtl, orderResponsesHotThreshold)));
+        builder.withCacheConfiguration(OrderTombstones.CACHE_NAME, defaultConfig.entryTtl(tombstoneTtl)); // Отметки живут недолго
+
+        RedisCacheManager redisCacheManager = builder.build();
+        redisCacheManager.afterPropertiesSet(); // Создаёт кэши с настройками из withCacheConfiguration
+        return redisCacheManager;
+    }
+
+    /**
+     * Сериализатор JSON с метаданными типа, совместимый с ранее записанными значениями.
+     */
+    private static GenericJackson2JsonRedisSerializer jsonSerializer() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        return new GenericJackson2JsonRedisSerializer(objectMapper);
     }
 }
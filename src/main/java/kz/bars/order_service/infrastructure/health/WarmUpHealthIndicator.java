@@ -0,0 +1,36 @@
+package kz.bars.order_service.infrastructure.health;
+
+import kz.bars.order_service.application.services.WarmUpRunner;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+@Component
+@SuppressWarnings("unused") // Подавляет предупреждения о неиспользуемых методах
+public class WarmUpHealthIndicator implements HealthIndicator {
+
+    final WarmUpRunner warmUpRunner; // Прогрев узла при запуске
+
+    /**
+     * Конструктор для передачи компонента прогрева.
+     *
+     * @param warmUpRunner Прогрев узла при запуске.
+     */
+    public WarmUpHealthIndicator(WarmUpRunner warmUpRunner) {
+        this.warmUpRunner = warmUpRunner;
+    }
+
+    /**
+     * Пока узел прогревается, возвращает OUT_OF_SERVICE,
+     * чтобы балансировщик не направлял на него трафик.
+     *
+     * @return Состояние прогрева (вверх или вне обслуживания).
+     */
+    @Override
+    public Health health() {
+        if (!warmUpRunner.isCompleted()) {
+            return Health.outOfService().withDetail("warmup", "in progress").build();
+        }
+        return Health.up().build();
+    }
+}
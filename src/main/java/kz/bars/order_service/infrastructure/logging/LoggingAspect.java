@@ -2,17 +2,20 @@ package kz.bars.order_service.infrastructure.logging;
 
 import kz.bars.order_service.application.services.UserService;
 import kz.bars.order_service.domain.models.Order;
+import kz.bars.order_service.presentation.dto.OrderBatchResponse;
+import kz.bars.order_service.presentation.dto.OrderBulkResponse;
+import kz.bars.order_service.presentation.dto.OrderPageResponse;
 import kz.bars.order_service.presentation.dto.OrderResponse;
 import kz.bars.order_service.presentation.dto.SignupRequest;
 import lombok.AllArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.aspectj.lang.JoinPoint;
-import org.aspectj.lang.annotation.After;
 import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -46,8 +49,9 @@ public class LoggingAspect {
      */
     @AfterReturning("execution(* kz.bars.order_service.application.services.AuthService.authenticate(..))")
     public void logUserLogin(JoinPoint joinPoint) {
-        String username = userService.getCurrentUsername();
-        log.info("User logged in: {}", username != null ? username : "Unknown");
+        // Имя пользователя берём из аргументов: SecurityContext при входе не заполняется
+        Object[] args = joinPoint.getArgs();
+        log.info("User logged in: {}", args.length > 0 && args[0] instanceof String username ? username : "Unknown");
     }
 
     /**
@@ -68,6 +72,17 @@ public class LoggingAspect {
         }
     }
 
+    /**
+     * Логирование действий пользователя: пакетное создание заказов.
+     */
+    @AfterReturning(pointcut = "execution(* kz.bars.order_service.application.services.OrderBatchService.createOrders(..))", returning = "result")
+    public void logOrderBatchCreation(JoinPoint joinPoint, Object result) {
+        if (result instanceof OrderBatchResponse response) {
+            log.info("Batch of {} orders was created by user: {}, rejected: {}",
+                    response.getCreated(), userService.getCurrentUsername(), response.getRejected());
+        }
+    }
+
     /**
      * Логирование действий пользователя: обновление заказа.
      */
@@ -81,7 +96,7 @@ public class LoggingAspect {
     /**
      * Логирование действий пользователя: удаление заказа.
      */
-    @After("execution(* kz.bars.order_service.application.services.OrderService.deleteOrder(..))")
+    @AfterReturning("execution(* kz.bars.order_service.application.services.OrderService.deleteOrder(..))")
     public void logOrderDeletion(JoinPoint joinPoint) {
         Object[] args = joinPoint.getArgs();
         if (args.length > 0 && args[0] instanceof UUID orderId) {
@@ -115,13 +130,15 @@ public class LoggingAspect {
     @AfterReturning(pointcut = "execution(* kz.bars.order_service.application.services.OrderService.getOrdersFiltered(..))", returning = "result")
     public void logGetFilteredOrders(JoinPoint joinPoint, Object result) {
         Object[] args = joinPoint.getArgs();
-        if (result instanceof List<?> responses) {
-            log.info("User {} retrieved filtered orders. Total count: {}, Filters: status={}, minPrice={}, maxPrice={}",
+        if (result instanceof OrderPageResponse page) {
+            log.info("User {} retrieved a page of filtered orders. Page size: {}, Has next page: {}, Filters: status={}, minPrice={}, maxPrice={}, sort={}",
                     userService.getCurrentUsername(),
-                    responses.size(),
+                    page.getItems().size(),
+                    page.getNextCursor() != null,
                     args.length > 0 ? args[0] : "N/A",
                     args.length > 1 ? args[1] : "N/A",
-                    args.length > 2 ? args[2] : "N/A"
+                    args.length > 2 ? args[2] : "N/A",
+                    args.length > 3 ? args[3] : "N/A"
             );
         }
     }
@@ -129,22 +146,40 @@ public class LoggingAspect {
     /**
      * Логирование изменения статуса заказа.
      */
-    @AfterReturning(pointcut = "execution(* kz.bars.order_service.application.services.OrderService.updateOrderStatus(..))", returning = "result")
-    public void logOrderStatusUpdate(JoinPoint joinPoint, Object result) {
-        if (result instanceof Order order) {
-            log.info("Order status was updated by user: {}. Order ID: {}, Old Status: {}, New Status: {}",
-                    userService.getCurrentUsername(),
-                    order.getOrderId(),
-                    joinPoint.getArgs()[1], // Новый статус передаётся как второй аргумент метода
-                    order.getStatus());
+    @AfterReturning("execution(* kz.bars.order_service.application.services.OrderService.updateOrderStatus(..)) && args(orderId, fromStatus, newStatus)")
+    public void logOrderStatusUpdate(UUID orderId, Order.Status fromStatus, Order.Status newStatus) {
+        log.info("Order status was updated by user: {}. Order ID: {}, Old Status: {}, New Status: {}",
+                userService.getCurrentUsername(), orderId, fromStatus, newStatus);
+    }
+
+    /**
+     * Логирование действий пользователя: пакетное удаление заказов.
+     */
+    @AfterReturning(pointcut = "execution(* kz.bars.order_service.application.services.OrderService.deleteOrders(..))", returning = "result")
+    public void logOrdersDeletion(JoinPoint joinPoint, Object result) {
+        if (result instanceof OrderBulkResponse response) {
+            log.info("{} of {} orders were marked as deleted by user: {}",
+                    response.getAffected(), response.getRequested(), userService.getCurrentUsername());
+        }
+    }
+
+    /**
+     * Логирование пакетного изменения статуса заказов.
+     */
+    @AfterReturning(pointcut = "execution(* kz.bars.order_service.application.services.OrderService.updateOrdersStatus(..)) && args(orderIds, fromStatus, newStatus)",
+            returning = "result")
+    public void logOrdersStatusUpdate(List<UUID> orderIds, Order.Status fromStatus, Order.Status newStatus, Object result) {
+        if (result instanceof OrderBulkResponse response) {
+            log.info("Status of {} of {} orders was updated by user: {}. Old Status: {}, New Status: {}",
+                    response.getAffected(), response.getRequested(), userService.getCurrentUsername(), fromStatus, newStatus);
         }
     }
 
     /**
      * Логирование вызова метода generateStatusChangeEvent.
      */
-    @Before("execution(* kz.bars.order_service.application.services.OrderService.generateStatusChangeEvent(..)) && args(orderId, oldStatus, newStatus)")
-    public void logGenerateStatusChangeEvent(Long orderId, Order.Status oldStatus, Order.Status newStatus) {
-        log.info("Order status change event: Order ID: {}, Old Status: {}, New Status: {}", orderId, oldStatus, newStatus);
+    @Before("execution(* kz.bars.order_service.application.services.OrderService.generateStatusChangeEvent(..)) && args(orderIds, oldStatus, newStatus, affected)")
+    public void logGenerateStatusChangeEvent(Collection<UUID> orderIds, Order.Status oldStatus, Order.Status newStatus, int affected) {
+        log.info("Order status change event: Order IDs: {}, Old Status: {}, New Status: {}, Affected: {}", orderIds, oldStatus, newStatus, affected);
     }
 }
@@ -0,0 +1,61 @@
+package kz.bars.order_service.infrastructure.metrics;
+
+import kz.bars.order_service.infrastructure.cache.HotKeyTracker;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Эндпоинт Actuator /hotkeys с отчётом о самых популярных ключах кэшей этого узла.
+ * Частоты - оценки count-min sketch из HotKeyTracker за последние интервалы затухания.
+ * Доступен только администраторам (см. SecurityConfig).
+ */
+@Component
+@Endpoint(id = "hotkeys")
+@SuppressWarnings("unused") // Подавляет предупреждения о неиспользуемых методах
+public class HotKeysEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20; // Количество ключей в отчёте по умолчанию
+
+    final HotKeyTracker hotKeyTracker; // Учёт частоты обращений к ключам
+
+    /**
+     * Конструктор для передачи учёта частоты обращений.
+     *
+     * @param hotKeyTracker Учёт частоты обращений к ключам.
+     */
+    public HotKeysEndpoint(HotKeyTracker hotKeyTracker) {
+        this.hotKeyTracker = hotKeyTracker;
+    }
+
+    /**
+     * Популярные ключи всех кэшей: GET /hotkeys?limit=20.
+     *
+     * @param limit Максимальное количество ключей на кэш.
+     * @return Имя кэша -> популярные ключи по убыванию частоты.
+     */
+    @ReadOperation
+    public Map<String, List<HotKeyTracker.HotKey>> hotKeys(@Nullable Integer limit) {
+        Map<String, List<HotKeyTracker.HotKey>> report = new TreeMap<>();
+        hotKeyTracker.cacheNames().forEach(cacheName -> report.put(cacheName, cacheHotKeys(cacheName, limit)));
+        return report;
+    }
+
+    /**
+     * Популярные ключи одного кэша: GET /hotkeys/{cache}?limit=20.
+     *
+     * @param cache Имя кэша.
+     * @param limit Максимальное количество ключей.
+     * @return Популярные ключи по убыванию частоты.
+     */
+    @ReadOperation
+    public List<HotKeyTracker.HotKey> cacheHotKeys(@Selector String cache, @Nullable Integer limit) {
+        return hotKeyTracker.top(cache, limit != null ? limit : DEFAULT_LIMIT);
+    }
+}
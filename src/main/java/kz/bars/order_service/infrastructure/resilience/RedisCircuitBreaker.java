@@ -0,0 +1,199 @@
+package kz.bars.order_service.infrastructure.resilience;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Автоматический выключатель (circuit breaker) для всех обращений к Redis.
+ * <p>
+ * CLOSED - обращения выполняются; подряд идущие ошибки и медленные вызовы считаются,
+ * и при достижении порога выключатель размыкается.
+ * OPEN - обращения не выполняются вовсе, сразу используется локальный запасной вариант,
+ * поэтому недоступный Redis не добавляет задержку к запросам.
+ * HALF_OPEN - по истечении паузы пропускается один пробный вызов: успех замыкает выключатель,
+ * ошибка снова размыкает его.
+ * <p>
+ * Ошибками считаются только {@link DataAccessException} (ошибки соединения и таймауты Redis);
+ * прочие исключения пробрасываются как есть. При замыкании выполняются зарегистрированные
+ * обработчики восстановления, например повтор отложенных инвалидаций.
+ * <p>
+ * Метрики: redis.circuit.state (0 - CLOSED, 1 - HALF_OPEN, 2 - OPEN)
+ * и redis.circuit.fallbacks{operation}.
+ */
+@Component
+@Log4j2
+public class RedisCircuitBreaker {
+
+    /**
+     * Состояние выключателя.
+     */
+    public enum State {
+        CLOSED,     // Обращения к Redis выполняются
+        HALF_OPEN,  // Выполняется пробный вызов
+        OPEN        // Обращения к Redis не выполняются
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final int failureThreshold; // Количество ошибок подряд для размыкания
+    private final long openDurationNanos; // Пауза перед пробным вызовом
+    private final long slowCallNanos; // Вызов дольше этого времени считается ошибкой
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean trialInProgress = new AtomicBoolean(); // Пробный вызов в состоянии HALF_OPEN
+    private final List<Runnable> recoveryListeners = new CopyOnWriteArrayList<>();
+    private volatile long openedAt; // Момент размыкания (System.nanoTime)
+
+    /**
+     * Конструктор с внедрением значений из application.yml.
+     *
+     * @param meterRegistry    реестр метрик
+     * @param failureThreshold количество ошибок подряд для размыкания
+     * @param openDuration     пауза перед пробным вызовом
+     * @param slowCallDuration вызов дольше этого времени считается ошибкой
+     */
+    public RedisCircuitBreaker(
+            MeterRegistry meterRegistry,
+            @Value("${spring.redis.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${spring.redis.circuit-breaker.open-duration:10s}") Duration openDuration,
+            @Value("${spring.redis.circuit-breaker.slow-call-duration:500ms}") Duration slowCallDuration) {
+        this.meterRegistry = meterRegistry;
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+        this.slowCallNanos = slowCallDuration.toNanos();
+
+        Gauge.builder("redis.circuit.state", state, current -> current.get().ordinal())
+                .description("Redis circuit breaker state: 0 - closed, 1 - half-open, 2 - open") // Описание метрики
+                .register(meterRegistry);
+    }
+
+    /**
+     * Выполняет обращение к Redis или, если Redis недоступен, запасной вариант.
+     *
+     * @param operation имя операции для метрики запасных вариантов
+     * @param action    обращение к Redis
+     * @param fallback  локальный запасной вариант
+     * @return результат обращения или запасного варианта
+     */
+    public <T> T execute(String operation, Supplier<T> action, Supplier<T> fallback) {
+        if (!allowRequest()) {
+            return fallback(operation, fallback);
+        }
+
+        long start = System.nanoTime();
+        try {
+            T result = action.get();
+            onSuccess(System.nanoTime() - start);
+            return result;
+        } catch (DataAccessException e) {
+            onFailure(e);
+            return fallback(operation, fallback);
+        } catch (RuntimeException e) {
+            onSuccess(System.nanoTime() - start); // Redis ответил, ошибка не связана с его доступностью
+            throw e;
+        }
+    }
+
+    /**
+     * Выполняет обращение к Redis без результата.
+     *
+     * @param operation имя операции для метрики запасных вариантов
+     * @param action    обращение к Redis
+     * @param fallback  локальный запасной вариант
+     */
+    public void run(String operation, Runnable action, Runnable fallback) {
+        execute(operation, () -> {
+            action.run();
+            return null;
+        }, () -> {
+            fallback.run();
+            return null;
+        });
+    }
+
+    /**
+     * Текущее состояние выключателя.
+     */
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * Доступен ли Redis для обращений (выключатель не разомкнут).
+     */
+    public boolean isAvailable() {
+        return state.get() != State.OPEN;
+    }
+
+    /**
+     * Регистрирует обработчик, вызываемый при восстановлении Redis (переходе в CLOSED).
+     *
+     * @param listener обработчик восстановления
+     */
+    public void onRecovery(Runnable listener) {
+        recoveryListeners.add(listener);
+    }
+
+    private boolean allowRequest() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN) {
+            if (System.nanoTime() - openedAt < openDurationNanos) {
+                return false; // Пауза ещё не истекла - быстрый отказ
+            }
+            state.compareAndSet(State.OPEN, State.HALF_OPEN);
+        }
+        return trialInProgress.compareAndSet(false, true); // В HALF_OPEN проходит только один пробный вызов
+    }
+
+    private void onSuccess(long elapsedNanos) {
+        if (elapsedNanos > slowCallNanos) {
+            onFailure(null); // Медленный ответ считается признаком деградации Redis
+            return;
+        }
+        consecutiveFailures.set(0);
+        if (state.get() == State.HALF_OPEN && state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+            trialInProgress.set(false);
+            log.info("Redis circuit breaker closed, Redis is available again.");
+            recoveryListeners.forEach(this::notifyRecovery);
+        }
+    }
+
+    private void onFailure(Exception e) {
+        State current = state.get();
+        if (current == State.HALF_OPEN || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            if (current != State.OPEN) {
+                openedAt = System.nanoTime();
+                state.set(State.OPEN);
+                trialInProgress.set(false);
+                log.warn("Redis circuit breaker opened: {}", e != null ? e.getMessage() : "slow responses");
+            }
+        }
+    }
+
+    private <T> T fallback(String operation, Supplier<T> fallback) {
+        meterRegistry.counter("redis.circuit.fallbacks", "operation", operation).increment();
+        return fallback.get();
+    }
+
+    private void notifyRecovery(Runnable listener) {
+        try {
+            listener.run();
+        } catch (Exception e) {
+            log.warn("Redis recovery handler failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package kz.bars.order_service.infrastructure.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Потокобезопасный фильтр Блума для строковых ключей.
+ * Отрицательный ответ {@link #mightContain(String)} гарантирует отсутствие ключа,
+ * положительный ответ может быть ложным с заданной вероятностью.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits; // Битовый массив фильтра
+    private final int bitCount;         // Количество битов
+    private final int hashCount;        // Количество хеш-функций
+
+    /**
+     * Создаёт фильтр, рассчитанный на ожидаемое количество ключей и вероятность ложного срабатывания.
+     *
+     * @param expectedInsertions       ожидаемое количество ключей
+     * @param falsePositiveProbability допустимая вероятность ложного срабатывания (0..1)
+     */
+    public BloomFilter(int expectedInsertions, double falsePositiveProbability) {
+        int insertions = Math.max(expectedInsertions, 1);
+        long optimalBits = (long) Math.ceil(-insertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.min(Math.max(optimalBits, 64), Integer.MAX_VALUE - 63);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / insertions * Math.log(2)));
+        this.bits = new AtomicLongArray((bitCount + 63) / 64);
+    }
+
+    /**
+     * Добавляет ключ в фильтр.
+     */
+    public void put(String key) {
+        long hash1 = hash(key);
+        long hash2 = mix(hash1);
+        for (int i = 0; i < hashCount; i++) {
+            int index = (int) Long.remainderUnsigned(hash1 + i * hash2, bitCount);
+            long mask = 1L << index;
+            int word = index >>> 6;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break; // Бит уже установлен
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    /**
+     * Проверяет, мог ли ключ быть добавлен в фильтр.
+     *
+     * @return false, если ключ точно не добавлялся; true, если ключ, вероятно, добавлялся
+     */
+    public boolean mightContain(String key) {
+        long hash1 = hash(key);
+        long hash2 = mix(hash1);
+        for (int i = 0; i < hashCount; i++) {
+            int index = (int) Long.remainderUnsigned(hash1 + i * hash2, bitCount);
+            if ((bits.get(index >>> 6) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 64-битный хеш FNV-1a по байтам ключа в UTF-8.
+     */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Второй независимый хеш (перемешивание SplitMix64) для схемы двойного хеширования.
+     */
+    private static long mix(long value) {
+        long z = value + 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return (z ^ (z >>> 31)) | 1L; // Нечётный шаг, чтобы позиции не повторялись
+    }
+}
@@ -1,7 +1,7 @@
 package kz.bars.order_service.infrastructure.security;
 
-import kz.bars.order_service.domain.models.User;
-import kz.bars.order_service.domain.repositories.UserRepository;
+import kz.bars.order_service.infrastructure.cache.CachedUser;
+import kz.bars.order_service.infrastructure.cache.UserCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -17,26 +17,46 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
-    private final UserRepository userRepository;
+    private final UserCache userCache; // Локальный кэш пользователей и ролей
 
     /**
      * Загружает информацию о пользователе по имени пользователя (username).
+     * Данные берутся из локального кэша, при промахе - из базы данных.
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        // Получение пользователя из репозитория
-        User user = userRepository.findByUsername(username)
+        CachedUser user = userCache.get(username)
                 .orElseThrow(() -> new BadCredentialsException("Invalid username or password"));
+        return toUserDetails(user);
+    }
+
+    /**
+     * Загружает актуальную информацию о пользователе из базы данных в обход кэша.
+     * Используется для периодической проверки, что пользователь не заблокирован.
+     */
+    public UserDetails reloadUserByUsername(String username) throws UsernameNotFoundException {
+        CachedUser user = userCache.reload(username)
+                .orElseThrow(() -> new BadCredentialsException("Invalid username or password"));
+        return toUserDetails(user);
+    }
 
+    /**
+     * Преобразует снимок пользователя в UserDetails.
+     */
+    private UserDetails toUserDetails(CachedUser user) {
         // Преобразование ролей пользователя в GrantedAuthority
         Collection<SimpleGrantedAuthority> authorities = user.getRoles().stream()
                 .map(role -> new SimpleGrantedAuthority("ROLE_" + role.getName()))
                 .collect(Collectors.toList());
 
-        // Возврат UserDetails с ролями
+        // Возврат UserDetails с ролями и признаком активности пользователя
         return new org.springframework.security.core.userdetails.User(
                 user.getUsername(),
                 user.getPassword(),
+                user.isEnabled(),
+                true,
+                true,
+                true,
                 authorities
         );
     }
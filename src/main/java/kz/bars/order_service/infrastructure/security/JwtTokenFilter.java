@@ -5,7 +5,6 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -19,8 +18,8 @@ import java.io.IOException;
 public class JwtTokenFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
-    private final CustomUserDetailsService userDetailsService;
-    private final RedisTemplate<String, String> tokenRedisTemplate;
+    private final TokenUserDetailsResolver userDetailsResolver;
+    private final TokenBlacklist tokenBlacklist;
 
     /**
      * Фильтр для проверки JWT токенов и настройки контекста безопасности.
@@ -33,22 +32,26 @@ public class JwtTokenFilter extends OncePerRequestFilter {
             // Получаем токен из заголовка запроса
             String token = jwtTokenProvider.resolveToken(request);
 
-            if (token != null && jwtTokenProvider.validateToken(token)) {
+            // Проверяем подпись токена один раз за запрос
+            VerifiedToken verifiedToken = token != null ? jwtTokenProvider.parseToken(token) : null;
 
-                // Проверяем, находится ли токен в Redis (черный список)
-                if (Boolean.TRUE.equals(tokenRedisTemplate.hasKey("tokens::" + token))) {
+            if (verifiedToken != null) {
+
+                // Проверяем, находится ли токен в черном списке (локальное зеркало Redis)
+                if (tokenBlacklist.isRevoked(verifiedToken)) {
                     throw new ServletException("Token is invalid.");
                 }
 
-                // Получаем имя пользователя из токена
-                String username = jwtTokenProvider.getUsername(token);
+                // Сохраняем проверенный токен для повторного использования в рамках запроса
+                request.setAttribute(VerifiedToken.REQUEST_ATTRIBUTE, verifiedToken);
 
-                // Загружаем данные пользователя
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                // Получаем данные пользователя из claims токена (или из БД, если stateless-режим отключён)
+                UserDetails userDetails = userDetailsResolver.resolve(verifiedToken);
 
                 // Создаем объект аутентификации
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                authentication.setDetails(verifiedToken);
 
                 // Устанавливаем аутентификацию в контекст безопасности
                 SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -2,33 +2,35 @@ package kz.bars.order_service.infrastructure.security;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.http.HttpServletRequest;
 import kz.bars.order_service.domain.models.Role;
 import kz.bars.order_service.domain.models.User;
-import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Component
-@RequiredArgsConstructor
 @SuppressWarnings("unused") // Подавляет предупреждения о неиспользуемых методах
 public class JwtTokenProvider {
 
     private final Key key;
     private final long validityInMilliseconds;
+    private final JwtParser jwtParser; // Потокобезопасный парсер, создаётся один раз для ключа
 
     // Конструктор по умолчанию
     public JwtTokenProvider() {
         this.key = Keys.secretKeyFor(SignatureAlgorithm.HS256); // Генерируем ключ по умолчанию
         this.validityInMilliseconds = 3600000;                  // Время жизни токена в миллисекундах по умолчанию
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(key).build();
     }
 
     /**
@@ -42,6 +44,7 @@ public class JwtTokenProvider {
             @Value("${jwt.expiration}") long expiration) {
         this.key = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
         this.validityInMilliseconds = expiration;
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(key).build();
     }
 
     /**
@@ -67,34 +70,54 @@ public class JwtTokenProvider {
 
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString()) // Идентификатор токена для компактного черного списка
                 .setIssuedAt(now)
                 .setExpiration(validity)
                 .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Однократная проверка подписи и разбор токена.
+     *
+     * @param token JWT токен.
+     * @return проверенный токен или null, если токен недействителен.
+     */
+    public VerifiedToken parseToken(String token) {
+        try {
+            return new VerifiedToken(token, jwtParser.parseClaimsJws(token).getBody());
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Возвращает проверенный токен текущего запроса.
+     * Если JwtTokenFilter уже проверил токен, повторная проверка подписи не выполняется.
+     *
+     * @param request HTTP запрос.
+     * @return проверенный токен или null, если токен отсутствует или недействителен.
+     */
+    public VerifiedToken resolveVerifiedToken(HttpServletRequest request) {
+        if (request.getAttribute(VerifiedToken.REQUEST_ATTRIBUTE) instanceof VerifiedToken verifiedToken) {
+            return verifiedToken;
+        }
+        String token = resolveToken(request);
+        return token != null ? parseToken(token) : null;
+    }
+
     /**
      * Извлечение имени пользователя из токена.
      */
     public String getUsername(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return jwtParser.parseClaimsJws(token).getBody().getSubject();
     }
 
     /**
      * Проверка валидности токена.
      */
     public boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
-        }
+        return parseToken(token) != null;
     }
 
     /**
@@ -104,12 +127,7 @@ public class JwtTokenProvider {
      * @return оставшееся время в миллисекундах до истечения срока действия токена.
      */
     public long getExpiration(String token) {
-        Date expiration = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getExpiration();
+        Date expiration = jwtParser.parseClaimsJws(token).getBody().getExpiration();
         return expiration.getTime() - System.currentTimeMillis();
     }
 }
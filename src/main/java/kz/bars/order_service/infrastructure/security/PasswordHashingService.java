@@ -0,0 +1,144 @@
+package kz.bars.order_service.infrastructure.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import kz.bars.order_service.infrastructure.exception.ApiException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Выполняет хеширование и проверку паролей в отдельном ограниченном пуле потоков.
+ * BCrypt намеренно медленный, поэтому всплеск входов в систему не должен занимать потоки Tomcat,
+ * обслуживающие заказы. При переполнении очереди запрос сразу отклоняется с 503 SERVICE UNAVAILABLE.
+ */
+@Component
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor pool; // Пул потоков для хеширования паролей
+    private final ExecutorService executor; // Пул, обёрнутый метриками Micrometer
+    private final long timeoutMillis; // Максимальное время ожидания результата хеширования
+    private final Timer encodeTimer; // Время хеширования пароля
+    private final Timer matchesTimer; // Время проверки пароля
+    private final Counter rejectedCounter; // Количество запросов, отклонённых из-за перегрузки
+
+    /**
+     * Конструктор с внедрением значений из application.yml.
+     *
+     * @param passwordEncoder кодировщик паролей
+     * @param meterRegistry   реестр метрик
+     * @param threads         количество потоков пула (0 - по числу процессоров)
+     * @param queueCapacity   максимальная длина очереди ожидающих задач
+     * @param timeout         максимальное время ожидания результата, включая время в очереди
+     */
+    public PasswordHashingService(
+            PasswordEncoder passwordEncoder,
+            MeterRegistry meterRegistry,
+            @Value("${password.hashing.threads:0}") int threads,
+            @Value("${password.hashing.queue-capacity:100}") int queueCapacity,
+            @Value("${password.hashing.timeout:5s}") Duration timeout) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeoutMillis = timeout.toMillis();
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()); // Переполнение очереди - немедленный отказ
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "password-hashing");
+
+        this.encodeTimer = Timer.builder("security.password.hash")
+                .description("Time spent hashing passwords") // Описание метрики
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("security.password.hash")
+                .description("Time spent hashing passwords") // Описание метрики
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("security.password.hash.rejected")
+                .description("Number of password hashing requests rejected due to overload") // Описание метрики
+                .register(meterRegistry);
+    }
+
+    /**
+     * Хеширует пароль.
+     *
+     * @param rawPassword пароль в открытом виде
+     * @return хеш пароля
+     * @throws ApiException со статусом 503, если пул перегружен
+     */
+    public String encode(String rawPassword) {
+        return execute(() -> encodeTimer.recordCallable(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    /**
+     * Проверяет соответствие пароля хешу.
+     *
+     * @param rawPassword     пароль в открытом виде
+     * @param encodedPassword хеш пароля
+     * @return true, если пароль совпадает
+     * @throws ApiException со статусом 503, если пул перегружен
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return execute(() -> matchesTimer.recordCallable(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+    }
+
+    /**
+     * Останавливает пул потоков при завершении приложения.
+     */
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Выполняет задачу в пуле и ожидает результат не дольше заданного времени.
+     */
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new ApiException("Authentication service is overloaded, please retry later.", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new ApiException("Authentication service is overloaded, please retry later.", HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Password hashing was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
@@ -1,9 +1,9 @@
 package kz.bars.order_service.infrastructure.security;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -24,16 +24,16 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @SuppressWarnings("unused") // Подавляет предупреждения о неиспользуемых методах
 public class SecurityConfig {
 
-    private final CustomUserDetailsService userDetailsService;
+    private final TokenUserDetailsResolver userDetailsResolver;
     private final JwtTokenProvider jwtTokenProvider;
-    private final RedisTemplate<String, String> tokenRedisTemplate;
+    private final TokenBlacklist tokenBlacklist;
 
     /**
      * Регистрация JwtTokenFilter как Spring Bean.
      */
     @Bean
     public JwtTokenFilter jwtTokenFilter() {
-        return new JwtTokenFilter(jwtTokenProvider, userDetailsService, tokenRedisTemplate);
+        return new JwtTokenFilter(jwtTokenProvider, userDetailsResolver, tokenBlacklist);
     }
 
     /**
@@ -46,10 +46,12 @@ public class SecurityConfig {
 
     /**
      * Создаёт объект PasswordEncoder для шифрования паролей.
+     *
+     * @param strength сложность BCrypt (log2 числа раундов), подбирается под SLO времени входа
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${password.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
     /**
@@ -63,6 +65,7 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.POST, "/auth/login", "/auth/signup").permitAll() // Разрешение для login/signup
                         .requestMatchers(HttpMethod.GET, "/api-docs/**", "/swagger-ui/**").permitAll() // Разрешение для Swagger
                         .requestMatchers(HttpMethod.GET, "/info", "/healthcheck", "/metrics").permitAll() // Разрешение для Actuator
+                        .requestMatchers(HttpMethod.GET, "/hotkeys", "/hotkeys/**").hasRole("ADMIN") // Отчёт о популярных ключах кэшей
                         .anyRequest().authenticated() // Все остальные запросы требуют аутентификации
                 )
                 .addFilterBefore(jwtTokenFilter(), UsernamePasswordAuthenticationFilter.class); // Добавление JWT фильтра перед стандартным фильтром
@@ -0,0 +1,337 @@
+package kz.bars.order_service.infrastructure.security;
+
+import kz.bars.order_service.infrastructure.resilience.RedisCircuitBreaker;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Черный список недействительных JWT токенов.
+ * Источником истины служит Redis, а каждый узел держит локальное зеркало отозванных токенов
+ * с учётом срока их жизни. Перед зеркалом стоит фильтр Блума, поэтому проверка
+ * неотозванного токена (основной случай) выполняется без обращения к Redis.
+ * Узлы синхронизируются через Redis pub/sub и периодическую полную пересинхронизацию.
+ * <p>
+ * Вместо полной строки JWT хранится дайджест фиксированной длины от идентификатора токена ("jti").
+ * В режиме bucketed дайджесты группируются в множества по часу истечения токенов,
+ * и каждое множество целиком удаляется Redis по истечении своего часа.
+ * <p>
+ * Обращения к Redis идут через автоматический выключатель: пока Redis недоступен,
+ * проверка выполняется только по локальному зеркалу, а отзывы сохраняются локально
+ * и записываются в Redis после его восстановления.
+ */
+@Component
+@Log4j2
+public class TokenBlacklist implements MessageListener {
+
+    /**
+     * Канал Redis pub/sub для рассылки отозванных токенов между узлами.
+     */
+    public static final String CHANNEL = "tokens:revoked";
+
+    private static final String KEY_PREFIX = "tokens::"; // Префикс ключей черного списка в Redis
+    private static final String BUCKET_PREFIX = KEY_PREFIX + "bucket:"; // Префикс множеств, сгруппированных по часу истечения
+    private static final long BUCKET_MILLIS = TimeUnit.HOURS.toMillis(1); // Размер интервала группировки
+    private static final int DIGEST_BYTES = 16; // Длина дайджеста (128 бит достаточно для уникальности jti)
+    private static final int SCAN_BATCH = 1000; // Ключей за один шаг SCAN и за один конвейер PTTL
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    });
+
+    private final RedisTemplate<String, String> tokenRedisTemplate;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final int expectedTokens; // Ожидаемое количество отозванных токенов для расчёта фильтра Блума
+    private final double falsePositiveProbability; // Допустимая вероятность ложного срабатывания фильтра Блума
+    private final boolean bucketed; // Группировка отозванных токенов по часу истечения
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>(); // Дайджест токена -> момент истечения срока действия
+    private final Map<String, Long> pendingRevocations = new ConcurrentHashMap<>(); // Отзывы, не записанные в Redis
+    private volatile BloomFilter bloomFilter;
+
+    /**
+     * Конструктор с внедрением значений из application.yml.
+     *
+     * @param tokenRedisTemplate       хранилище недействительных токенов
+     * @param circuitBreaker           автоматический выключатель Redis
+     * @param expectedTokens           ожидаемое количество одновременно отозванных токенов
+     * @param falsePositiveProbability допустимая вероятность ложного срабатывания фильтра Блума
+     * @param bucketed                 группировать отозванные токены в множества по часу истечения
+     */
+    public TokenBlacklist(
+            RedisTemplate<String, String> tokenRedisTemplate,
+            RedisCircuitBreaker circuitBreaker,
+            @Value("${jwt.blacklist.expected-tokens:100000}") int expectedTokens,
+            @Value("${jwt.blacklist.false-positive-probability:0.01}") double falsePositiveProbability,
+            @Value("${jwt.blacklist.bucketed:true}") boolean bucketed) {
+        this.tokenRedisTemplate = tokenRedisTemplate;
+        this.circuitBreaker = circuitBreaker;
+        this.expectedTokens = expectedTokens;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.bucketed = bucketed;
+        this.bloomFilter = new BloomFilter(expectedTokens, falsePositiveProbability);
+        circuitBreaker.onRecovery(this::replayPendingRevocations);
+    }
+
+    /**
+     * Отзывает токен: сохраняет его дайджест в Redis до истечения срока действия токена,
+     * добавляет в локальное зеркало и оповещает остальные узлы.
+     *
+     * @param verifiedToken проверенный JWT токен
+     */
+    public void revoke(VerifiedToken verifiedToken) {
+        long expiresAt = verifiedToken.getExpiresAt();
+        long ttlMillis = expiresAt - System.currentTimeMillis();
+        if (ttlMillis <= 0) {
+            return; // Срок действия токена уже истёк, заносить в черный список не требуется
+        }
+
+        String digest = digest(verifiedToken);
+        addLocal(digest, expiresAt); // Локальное зеркало обновляется в любом случае
+        circuitBreaker.run("blacklist.revoke",
+                () -> store(digest, expiresAt),
+                () -> pendingRevocations.put(digest, expiresAt)); // Запишем в Redis после восстановления
+    }
+
+    /**
+     * Сохраняет дайджест отозванного токена в Redis и оповещает остальные узлы.
+     */
+    private void store(String digest, long expiresAt) {
+        long ttlMillis = expiresAt - System.currentTimeMillis();
+        if (ttlMillis <= 0) {
+            return;
+        }
+        if (bucketed) {
+            String bucketKey = bucketKey(expiresAt);
+            tokenRedisTemplate.opsForSet().add(bucketKey, digest);
+            tokenRedisTemplate.expireAt(bucketKey, Instant.ofEpochMilli(bucketEnd(expiresAt)));
+        } else {
+            tokenRedisTemplate.opsForValue().set(KEY_PREFIX + digest, "invalid", ttlMillis, TimeUnit.MILLISECONDS);
+        }
+        tokenRedisTemplate.convertAndSend(CHANNEL, expiresAt + ":" + digest);
+    }
+
+    /**
+     * Записывает в Redis отзывы, сделанные во время его недоступности.
+     */
+    private void replayPendingRevocations() {
+        pendingRevocations.forEach((digest, expiresAt) -> {
+            pendingRevocations.remove(digest, expiresAt);
+            circuitBreaker.run("blacklist.revoke",
+                    () -> store(digest, expiresAt),
+                    () -> pendingRevocations.put(digest, expiresAt));
+        });
+    }
+
+    /**
+     * Проверяет, отозван ли токен.
+     *
+     * @param verifiedToken проверенный JWT токен
+     * @return true, если токен находится в черном списке
+     */
+    public boolean isRevoked(VerifiedToken verifiedToken) {
+        String digest = digest(verifiedToken);
+
+        // Быстрый путь: фильтр Блума точно знает, что токен не отзывался
+        if (!bloomFilter.mightContain(digest)) {
+            return false;
+        }
+
+        Long expiresAt = revokedTokens.get(digest);
+        if (expiresAt != null) {
+            if (expiresAt > System.currentTimeMillis()) {
+                return true;
+            }
+            revokedTokens.remove(digest, expiresAt); // Срок действия истёк, запись больше не нужна
+            return false;
+        }
+
+        // Возможное ложное срабатывание фильтра Блума: уточняем в Redis, а без него - по локальному зеркалу
+        return circuitBreaker.execute("blacklist.lookup", () -> isRevokedInRedis(verifiedToken, digest), () -> false);
+    }
+
+    private boolean isRevokedInRedis(VerifiedToken verifiedToken, String digest) {
+        if (bucketed) {
+            if (Boolean.TRUE.equals(tokenRedisTemplate.opsForSet().isMember(bucketKey(verifiedToken.getExpiresAt()), digest))) {
+                addLocal(digest, verifiedToken.getExpiresAt());
+                return true;
+            }
+            return false;
+        }
+
+        Long ttlMillis = tokenRedisTemplate.getExpire(KEY_PREFIX + digest, TimeUnit.MILLISECONDS);
+        if (ttlMillis != null && ttlMillis > 0) {
+            addLocal(digest, System.currentTimeMillis() + ttlMillis);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Получает сообщение об отозванном токене от другого узла.
+     * Формат сообщения: "&lt;момент истечения в мс&gt;:&lt;дайджест токена&gt;".
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(':');
+        if (separator <= 0) {
+            log.warn("Unable to process revoked token message: invalid format.");
+            return;
+        }
+        try {
+            addLocal(body.substring(separator + 1), Long.parseLong(body.substring(0, separator)));
+        } catch (NumberFormatException e) {
+            log.warn("Unable to process revoked token message: invalid expiration.");
+        }
+    }
+
+    /**
+     * Полная пересинхронизация локального зеркала с Redis.
+     * Выполняется при старте и периодически: подхватывает токены, отозванные до запуска узла
+     * или пропущенные при потере pub/sub сообщений, и перестраивает фильтр Блума без истёкших токенов.
+     * Пока Redis недоступен, пересинхронизация пропускается.
+     */
+    @Scheduled(fixedDelayString = "${jwt.blacklist.resync-interval:300000}")
+    public void resynchronize() {
+        long now = System.currentTimeMillis();
+        Map<String, Long> snapshot = circuitBreaker.execute("blacklist.resync", () -> scan(now), () -> null);
+        if (snapshot == null) {
+            log.warn("Unable to synchronize token blacklist with Redis: Redis is unavailable");
+            return;
+        }
+
+        synchronized (this) {
+            // Сохраняем локальные записи, добавленные во время сканирования
+            revokedTokens.forEach((digest, expiresAt) -> {
+                if (expiresAt > now) {
+                    snapshot.merge(digest, expiresAt, Math::max);
+                }
+            });
+
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedTokens, snapshot.size() * 2), falsePositiveProbability);
+            snapshot.keySet().forEach(rebuilt::put);
+
+            revokedTokens.keySet().retainAll(snapshot.keySet());
+            revokedTokens.putAll(snapshot);
+            bloomFilter = rebuilt;
+        }
+    }
+
+    /**
+     * Читает из Redis все отозванные токены с моментами истечения.
+     * Понимает оба формата хранения, а также ключи старого формата с полной строкой JWT.
+     * TTL отдельных ключей запрашиваются конвейером пачками по {@link #SCAN_BATCH} ключей,
+     * поэтому число обращений к Redis не растёт с количеством отозванных токенов.
+     */
+    private Map<String, Long> scan(long now) {
+        Map<String, Long> snapshot = new HashMap<>();
+        List<String> tokenKeys = new ArrayList<>(SCAN_BATCH); // Ключи отдельных токенов, ожидающие запроса TTL
+        try (Cursor<String> keys = tokenRedisTemplate.scan(ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(SCAN_BATCH).build())) {
+            while (keys.hasNext()) {
+                String key = keys.next();
+                if (key.startsWith(BUCKET_PREFIX)) {
+                    // Множество дайджестов: все токены в нём истекают не позже конца часа
+                    long expiresAt = bucketEnd(Long.parseLong(key.substring(BUCKET_PREFIX.length())) * BUCKET_MILLIS);
+                    Set<String> digests = tokenRedisTemplate.opsForSet().members(key);
+                    if (digests != null && expiresAt > now) {
+                        digests.forEach(digest -> snapshot.put(digest, expiresAt));
+                    }
+                    continue;
+                }
+
+                tokenKeys.add(key);
+                if (tokenKeys.size() == SCAN_BATCH) {
+                    readTokenKeys(tokenKeys, now, snapshot);
+                    tokenKeys.clear();
+                }
+            }
+        }
+        readTokenKeys(tokenKeys, now, snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Запрашивает TTL ключей отдельных токенов одним конвейером (PTTL) и добавляет живые токены в снимок.
+     */
+    private void readTokenKeys(List<String> tokenKeys, long now, Map<String, Long> snapshot) {
+        if (tokenKeys.isEmpty()) {
+            return;
+        }
+        List<Object> ttls = tokenRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            tokenKeys.forEach(key -> connection.keyCommands().pTtl(key.getBytes(StandardCharsets.UTF_8)));
+            return null; // Результаты возвращает executePipelined
+        });
+
+        for (int i = 0; i < tokenKeys.size(); i++) {
+            if (ttls.get(i) instanceof Long ttlMillis && ttlMillis > 0) {
+                String suffix = tokenKeys.get(i).substring(KEY_PREFIX.length());
+                // Ключи старого формата содержат полную строку JWT без "jti"
+                String digest = suffix.indexOf('.') >= 0 ? digest(suffix) : suffix;
+                snapshot.put(digest, now + ttlMillis);
+            }
+        }
+    }
+
+    /**
+     * Добавляет дайджест токена в локальное зеркало и фильтр Блума.
+     */
+    private synchronized void addLocal(String digest, long expiresAt) {
+        revokedTokens.merge(digest, expiresAt, Math::max);
+        bloomFilter.put(digest);
+    }
+
+    /**
+     * Дайджест токена: по "jti", а для токенов без идентификатора - по полной строке JWT.
+     */
+    private static String digest(VerifiedToken verifiedToken) {
+        String tokenId = verifiedToken.getTokenId();
+        return digest(tokenId != null ? tokenId : verifiedToken.getToken());
+    }
+
+    /**
+     * Усечённый SHA-256 в кодировке Base64 URL (22 символа).
+     */
+    private static String digest(String value) {
+        byte[] hash = SHA_256.get().digest(value.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, DIGEST_BYTES));
+    }
+
+    /**
+     * Ключ множества для часа, в котором истекает токен.
+     */
+    private static String bucketKey(long expiresAt) {
+        return BUCKET_PREFIX + expiresAt / BUCKET_MILLIS;
+    }
+
+    /**
+     * Конец часового интервала, в который попадает момент истечения.
+     */
+    private static long bucketEnd(long expiresAt) {
+        return (expiresAt / BUCKET_MILLIS + 1) * BUCKET_MILLIS;
+    }
+}
@@ -0,0 +1,91 @@
+package kz.bars.order_service.infrastructure.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Определяет данные аутентифицированного пользователя по проверенному JWT токену.
+ * В режиме stateless полномочия строятся из claim "roles" без обращения к базе данных,
+ * а активность пользователя перепроверяется в базе не чаще одного раза за заданный интервал.
+ */
+@Component
+public class TokenUserDetailsResolver {
+
+    private final CustomUserDetailsService userDetailsService;
+    private final boolean stateless; // Аутентификация по claims токена без запроса к БД
+    private final boolean revalidate; // Перепроверять активность пользователя в БД
+    private final Cache<String, Boolean> revalidatedUsers; // Пользователи, проверенные в течение интервала (запись истекает через интервал)
+
+    /**
+     * Конструктор с внедрением значений из application.yml.
+     *
+     * @param userDetailsService сервис загрузки пользователя из базы данных
+     * @param stateless          включает построение пользователя из claims токена
+     * @param revalidateInterval интервал повторной проверки активности пользователя в режиме stateless
+     * @param revalidateMaxUsers максимальное количество пользователей, для которых запоминается проверка
+     */
+    public TokenUserDetailsResolver(
+            CustomUserDetailsService userDetailsService,
+            @Value("${jwt.stateless:true}") boolean stateless,
+            @Value("${jwt.revalidate-interval:5m}") Duration revalidateInterval,
+            @Value("${jwt.revalidate-max-users:100000}") long revalidateMaxUsers) {
+        this.userDetailsService = userDetailsService;
+        this.stateless = stateless;
+        this.revalidate = revalidateInterval.toMillis() > 0;
+        this.revalidatedUsers = Caffeine.newBuilder()
+                .maximumSize(revalidateMaxUsers) // Память не растёт с количеством пользователей
+                .expireAfterWrite(revalidate ? revalidateInterval : Duration.ZERO)
+                .build();
+    }
+
+    /**
+     * Возвращает данные пользователя для проверенного токена.
+     *
+     * @param verifiedToken проверенный JWT токен
+     * @return данные пользователя с полномочиями
+     * @throws DisabledException если пользователь заблокирован
+     */
+    public UserDetails resolve(VerifiedToken verifiedToken) {
+        String username = verifiedToken.getUsername();
+
+        if (!stateless) {
+            // Классический режим: пользователь и роли загружаются из БД на каждый запрос
+            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            if (!userDetails.isEnabled()) {
+                throw new DisabledException("User is disabled");
+            }
+            return userDetails;
+        }
+
+        revalidateIfDue(username);
+
+        return org.springframework.security.core.userdetails.User.withUsername(username)
+                .password("") // Пароль в контексте безопасности не требуется
+                .authorities(verifiedToken.getAuthorities())
+                .build();
+    }
+
+    /**
+     * Перепроверяет в базе данных, что пользователь существует и активен,
+     * если с момента последней проверки прошло больше заданного интервала.
+     * Проверенные пользователи хранятся в ограниченном кэше Caffeine, запись истекает через интервал,
+     * поэтому достаточно проверить её наличие.
+     */
+    private void revalidateIfDue(String username) {
+        if (!revalidate || revalidatedUsers.getIfPresent(username) != null) {
+            return; // Проверка отключена или пользователь уже проверен в течение интервала
+        }
+
+        UserDetails userDetails = userDetailsService.reloadUserByUsername(username);
+        if (!userDetails.isEnabled()) {
+            throw new DisabledException("User is disabled");
+        }
+        revalidatedUsers.put(username, Boolean.TRUE);
+    }
+}
@@ -0,0 +1,78 @@
+package kz.bars.order_service.infrastructure.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Результат однократной проверки JWT токена: исходная строка токена и проверенные claims.
+ * Создаётся в JwtTokenFilter и переиспользуется контроллерами и сервисами в рамках запроса,
+ * чтобы подпись токена не проверялась повторно.
+ */
+@Getter
+@RequiredArgsConstructor
+public class VerifiedToken {
+
+    /**
+     * Имя атрибута запроса, в котором JwtTokenFilter сохраняет проверенный токен.
+     */
+    public static final String REQUEST_ATTRIBUTE = VerifiedToken.class.getName();
+
+    /**
+     * Исходная строка JWT токена.
+     */
+    private final String token;
+
+    /**
+     * Claims токена, подпись которых уже проверена.
+     */
+    private final Claims claims;
+
+    /**
+     * Имя пользователя (subject) из токена.
+     */
+    public String getUsername() {
+        return claims.getSubject();
+    }
+
+    /**
+     * Уникальный идентификатор токена (claim "jti").
+     *
+     * @return идентификатор токена или null для токенов, выпущенных без "jti"
+     */
+    public String getTokenId() {
+        return claims.getId();
+    }
+
+    /**
+     * Момент истечения срока действия токена в миллисекундах.
+     */
+    public long getExpiresAt() {
+        return claims.getExpiration().getTime();
+    }
+
+    /**
+     * Оставшееся время жизни токена в миллисекундах.
+     */
+    public long getRemainingValidity() {
+        return getExpiresAt() - System.currentTimeMillis();
+    }
+
+    /**
+     * Полномочия пользователя, построенные из claim "roles" токена.
+     *
+     * @return список полномочий вида ROLE_&lt;имя роли&gt;; пустой список, если claim отсутствует
+     */
+    public Collection<SimpleGrantedAuthority> getAuthorities() {
+        if (!(claims.get("roles") instanceof List<?> roles)) {
+            return List.of();
+        }
+        return roles.stream()
+                .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+                .toList();
+    }
+}
@@ -64,8 +64,8 @@ public class AuthController {
     @PostMapping("/logout")
     @Operation(summary = "Logout")
     public ResponseEntity<String> logout(HttpServletRequest request) {
-        String token = jwtTokenProvider.resolveToken(request);
-        authService.logout(token);
+        // Используем токен, уже проверенный JwtTokenFilter
+        authService.logout(jwtTokenProvider.resolveVerifiedToken(request));
         return ResponseEntity.ok("User logged out successfully.");
     }
 }
@@ -3,8 +3,16 @@ package kz.bars.order_service.presentation.controllers;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import kz.bars.order_service.application.services.OrderBatchService;
 import kz.bars.order_service.application.services.OrderService;
 import kz.bars.order_service.domain.models.Order;
+import kz.bars.order_service.domain.specifications.OrderSort;
+import kz.bars.order_service.presentation.dto.OrderBatchRequest;
+import kz.bars.order_service.presentation.dto.OrderBatchResponse;
+import kz.bars.order_service.presentation.dto.OrderBulkDeleteRequest;
+import kz.bars.order_service.presentation.dto.OrderBulkResponse;
+import kz.bars.order_service.presentation.dto.OrderBulkStatusRequest;
+import kz.bars.order_service.presentation.dto.OrderPageResponse;
 import kz.bars.order_service.presentation.dto.OrderRequest;
 import kz.bars.order_service.presentation.dto.OrderResponse;
 import lombok.RequiredArgsConstructor;
@@ -14,7 +22,6 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
-import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -26,29 +33,36 @@ import java.util.UUID;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderBatchService orderBatchService;
 
     /**
-     * Получение списка заказов с фильтрацией.
+     * Получение страницы заказов с фильтрацией.
      * Доступно только администраторам.
      *
      * @param status   статус заказа (опционально)
      * @param minPrice минимальная цена (опционально)
      * @param maxPrice максимальная цена (опционально)
-     * @return список заказов
+     * @param sort     ключ сортировки: ORDER_ID или TOTAL_PRICE (опционально)
+     * @param limit    размер страницы (не больше 100)
+     * @param cursor   курсор nextCursor из предыдущей страницы (опционально)
+     * @return страница заказов и курсор следующей страницы
      */
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Get all orders by filter")
-    public ResponseEntity<List<OrderResponse>> getOrdersFiltered(
+    @Operation(summary = "Get a page of orders by filter")
+    public ResponseEntity<OrderPageResponse> getOrdersFiltered(
             @RequestParam(value = "status", required = false) Order.Status status,
             @RequestParam(value = "min_price", required = false) BigDecimal minPrice,
-            @RequestParam(value = "max_price", required = false) BigDecimal maxPrice) {
+            @RequestParam(value = "max_price", required = false) BigDecimal maxPrice,
+            @RequestParam(value = "sort", required = false) OrderSort sort,
+            @RequestParam(value = "limit", defaultValue = "" + OrderService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
 
-        // Получение отфильтрованных заказов через сервис
-        List<OrderResponse> orders = orderService.getOrdersFiltered(status, minPrice, maxPrice);
+        // Получение страницы отфильтрованных заказов через сервис
+        OrderPageResponse page = orderService.getOrdersFiltered(status, minPrice, maxPrice, sort, limit, cursor);
 
-        // Возврат списка заказов с HTTP статусом OK
-        return ResponseEntity.ok(orders);
+        // Возврат страницы заказов с HTTP статусом OK
+        return ResponseEntity.ok(page);
     }
 
     /**
@@ -79,6 +93,22 @@ public class OrderController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * Создаёт заказы пакетом (не больше 1000 заказов в запросе).
+     * Каждый заказ проверяется отдельно: ответ содержит ID созданных заказов
+     * и ошибки отклонённых в порядке запроса.
+     */
+    @PostMapping("/batch")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @Operation(summary = "Create orders in batch")
+    public ResponseEntity<OrderBatchResponse> createOrders(@RequestBody OrderBatchRequest request) {
+        // Создание заказов через сервис пакетного создания
+        OrderBatchResponse response = orderBatchService.createOrders(request);
+
+        // Возврат результатов по каждому заказу с HTTP статусом OK
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Обновляет существующий заказ.
      */
@@ -106,4 +136,36 @@ public class OrderController {
         // Возврат пустого контента с HTTP статусом NO_CONTENT
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Удаляет несколько заказов одним запросом (мягкое удаление).
+     * Пользователь удаляет только собственные заказы, администратор - любые;
+     * недоступные и уже удалённые заказы пропускаются.
+     */
+    @PostMapping("/bulk/delete")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @Operation(summary = "Soft delete orders in bulk")
+    public ResponseEntity<OrderBulkResponse> deleteOrders(@RequestBody @Valid OrderBulkDeleteRequest request) {
+        // Удаление заказов через сервис
+        OrderBulkResponse response = orderService.deleteOrders(request.getOrderIds());
+
+        // Возврат количества удалённых заказов с HTTP статусом OK
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Переводит несколько заказов из статуса fromStatus в toStatus одним запросом.
+     * Доступно только администраторам; заказы в другом статусе пропускаются.
+     */
+    @PostMapping("/bulk/status")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Change status of orders in bulk")
+    public ResponseEntity<OrderBulkResponse> updateOrdersStatus(@RequestBody @Valid OrderBulkStatusRequest request) {
+        // Смена статуса заказов через сервис
+        OrderBulkResponse response = orderService.updateOrdersStatus(
+                request.getOrderIds(), request.getFromStatus(), request.getToStatus());
+
+        // Возврат количества изменённых заказов с HTTP статусом OK
+        return ResponseEntity.ok(response);
+    }
 }
@@ -0,0 +1,35 @@
+package kz.bars.order_service.presentation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderBatchItemResponse {
+
+    /**
+     * Позиция заказа в запросе (с нуля).
+     */
+    private int index;
+
+    /**
+     * ID созданного заказа (null, если заказ отклонён).
+     */
+    private UUID orderId;
+
+    /**
+     * Общая стоимость созданного заказа (null, если заказ отклонён).
+     */
+    private BigDecimal totalPrice;
+
+    /**
+     * Ошибки проверки заказа (пустой список, если заказ создан).
+     */
+    private List<String> errors;
+}
@@ -0,0 +1,20 @@
+package kz.bars.order_service.presentation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderBatchRequest {
+
+    /**
+     * Заказы для создания. Каждый заказ проверяется отдельно,
+     * поэтому ошибки одного заказа не отклоняют весь пакет.
+     * Размер пакета ограничен OrderBatchService.MAX_BATCH_SIZE.
+     */
+    private List<OrderRequest> orders;
+}
@@ -0,0 +1,28 @@
+package kz.bars.order_service.presentation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderBatchResponse {
+
+    /**
+     * Количество созданных заказов.
+     */
+    private int created;
+
+    /**
+     * Количество отклонённых заказов.
+     */
+    private int rejected;
+
+    /**
+     * Результаты по каждому заказу в порядке запроса.
+     */
+    private List<OrderBatchItemResponse> items;
+}
@@ -0,0 +1,22 @@
+package kz.bars.order_service.presentation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderBulkResponse {
+
+    /**
+     * Количество различных ID в запросе.
+     */
+    private int requested;
+
+    /**
+     * Количество изменённых заказов. Меньше requested, если часть заказов
+     * не найдена, недоступна или не удовлетворяет условию операции.
+     */
+    private int affected;
+}
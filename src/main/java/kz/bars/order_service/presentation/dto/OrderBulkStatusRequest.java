@@ -0,0 +1,39 @@
+package kz.bars.order_service.presentation.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import kz.bars.order_service.application.services.OrderService;
+import kz.bars.order_service.domain.models.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderBulkStatusRequest {
+
+    /**
+     * ID заказов для смены статуса. Список не может быть пустым, содержать null
+     * или быть длиннее OrderService.MAX_BULK_SIZE.
+     */
+    @NotEmpty
+    @Size(max = OrderService.MAX_BULK_SIZE)
+    private List<@NotNull UUID> orderIds;
+
+    /**
+     * Ожидаемый текущий статус. Заказы в другом статусе не изменяются.
+     */
+    @NotNull
+    private Order.Status fromStatus;
+
+    /**
+     * Новый статус.
+     */
+    @NotNull
+    private Order.Status toStatus;
+}
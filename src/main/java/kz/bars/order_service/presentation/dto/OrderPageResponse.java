@@ -0,0 +1,24 @@
+package kz.bars.order_service.presentation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPageResponse {
+
+    /**
+     * Заказы текущей страницы.
+     */
+    private List<OrderResponse> items;
+
+    /**
+     * Курсор следующей страницы (null, если страница последняя).
+     * Передаётся без изменений в параметре cursor следующего запроса.
+     */
+    private String nextCursor;
+}
@@ -8,12 +8,20 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.util.UUID;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class ProductRequest {
 
+    /**
+     * ID существующей строки продукта (из ProductResponse) при обновлении заказа.
+     * Null - новая строка; строки заказа, не переданные в запросе, удаляются.
+     * При создании заказа не используется.
+     */
+    private UUID productId;
+
     /**
      * Название продукта. Поле не может быть пустым или содержать только пробелы.
      * Используется аннотация @NotBlank
@@ -5,12 +5,19 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.util.UUID;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class ProductResponse {
 
+    /**
+     * ID строки продукта. Передаётся в ProductRequest при обновлении заказа,
+     * чтобы строка была изменена на месте, а не удалена и создана заново.
+     */
+    private UUID productId;
+
     /**
      * Название продукта.
      */
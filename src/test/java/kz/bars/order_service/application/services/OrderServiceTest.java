@@ -1,17 +1,45 @@
 package kz.bars.order_service.application.services;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import kz.bars.order_service.builder.OrderTestBuilder;
 import kz.bars.order_service.domain.models.Order;
 import kz.bars.order_service.domain.repositories.OrderRepository;
+import kz.bars.order_service.infrastructure.cache.LocalCacheVersionStore;
+import kz.bars.order_service.infrastructure.cache.OrderCacheKeys;
+import kz.bars.order_service.infrastructure.cache.OrderTombstones;
+import kz.bars.order_service.infrastructure.cache.RequestCoalescer;
+import kz.bars.order_service.infrastructure.exception.ApiException;
+import kz.bars.order_service.infrastructure.metrics.CustomMetrics;
+import kz.bars.order_service.infrastructure.resilience.RedisCircuitBreaker;
+import kz.bars.order_service.presentation.dto.OrderResponse;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ActiveProfiles("test") // Используем тестовый профиль
@@ -86,4 +114,180 @@ class OrderServiceTest {
         assertEquals(1, orders.size());
         assertEquals(Order.Status.CONFIRMED, orders.get(0).getStatus());
     }
+
+    /**
+     * Тест проверяет, что заказ из кэша не выдаётся другому пользователю:
+     * проверка владельца выполняется при каждом попадании в кэш,
+     * а администратор получает заказ из кэша без обращения к репозиторию.
+     */
+    @Test
+    void testCachedOrderIsCheckedForOwnerOnEveryHit() {
+        // Arrange
+        UUID orderId = UUID.randomUUID();
+        OrderResponse order = new OrderResponse(orderId, "alice", List.of(), BigDecimal.TEN, Order.Status.PENDING);
+        when(orderRepository.findResponseById(orderId)).thenReturn(Optional.of(order));
+
+        OrderService orderService = cachingOrderService();
+        authenticate("alice", "USER");
+        orderService.getOrderResponseById(orderId); // Владелец заполняет кэш
+
+        // Act
+        authenticate("bob", "USER");
+        ApiException exception = assertThrows(ApiException.class, () -> orderService.getOrderResponseById(orderId));
+        authenticate("admin", "ADMIN");
+        String adminView = orderService.getOrderResponseById(orderId).getCustomerName();
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+        assertEquals("alice", adminView);
+        verify(orderRepository, times(1)).findResponseById(orderId); // Повторные чтения обслужены из кэша
+    }
+
+    /**
+     * Тест проверяет, что повторный запрос несуществующего заказа
+     * обслуживается негативным кэшем без обращения к репозиторию.
+     */
+    @Test
+    void testMissingOrderIsTombstoned() {
+        // Arrange
+        UUID orderId = UUID.randomUUID();
+        when(orderRepository.findResponseById(orderId)).thenReturn(Optional.empty());
+        OrderService orderService = cachingOrderService();
+        authenticate("alice", "USER");
+
+        // Act
+        assertThrows(ApiException.class, () -> orderService.getOrderResponseById(orderId));
+        ApiException exception = assertThrows(ApiException.class, () -> orderService.getOrderResponseById(orderId));
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+        verify(orderRepository, times(1)).findResponseById(orderId); // Второй запрос отклонён по отметке
+    }
+
+    /**
+     * Тест проверяет, что удаление заказа изменяет кэш только после фиксации транзакции:
+     * чтение между UPDATE и фиксацией кладёт в кэш старую строку, но она удаляется после фиксации,
+     * а отметка о удалённом заказе ставится только после неё.
+     */
+    @Test
+    void testDeleteOrderEvictsAfterCommit() {
+        // Arrange
+        UUID orderId = UUID.randomUUID();
+        OrderResponse stale = new OrderResponse(orderId, "alice", List.of(), BigDecimal.TEN, Order.Status.PENDING);
+        when(orderRepository.softDeleteByIds(List.of(orderId))).thenReturn(1);
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+        OrderService orderService = cachingOrderService(cacheManager);
+        OrderTombstones orderTombstones = new OrderTombstones(cacheManager, new SimpleMeterRegistry());
+        Cache cache = cacheManager.getCache(OrderCacheKeys.CACHE_NAME);
+        authenticate("admin", "ADMIN");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            orderService.deleteOrder(orderId); // UPDATE выполнен, транзакция ещё не зафиксирована
+            cache.put(orderId, stale); // Параллельное чтение видит незафиксированную строку и кэширует её
+            boolean tombstonedBeforeCommit = orderTombstones.contains(orderId);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            // Assert
+            assertFalse(tombstonedBeforeCommit);
+            assertNull(cache.get(orderId));
+            assertTrue(orderTombstones.contains(orderId));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /**
+     * Тест проверяет, что при откате транзакции удаления кэш не изменяется и ложная отметка не ставится.
+     */
+    @Test
+    void testDeleteOrderRollbackLeavesCacheIntact() {
+        // Arrange
+        UUID orderId = UUID.randomUUID();
+        OrderResponse cached = new OrderResponse(orderId, "alice", List.of(), BigDecimal.TEN, Order.Status.PENDING);
+        when(orderRepository.softDeleteByIds(List.of(orderId))).thenReturn(1);
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+        OrderService orderService = cachingOrderService(cacheManager);
+        OrderTombstones orderTombstones = new OrderTombstones(cacheManager, new SimpleMeterRegistry());
+        Cache cache = cacheManager.getCache(OrderCacheKeys.CACHE_NAME);
+        cache.put(orderId, cached);
+        authenticate("admin", "ADMIN");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            orderService.deleteOrder(orderId);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+            // Assert
+            assertEquals(cached, cache.get(orderId).get());
+            assertFalse(orderTombstones.contains(orderId));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /**
+     * Тест проверяет, что упреждающее обновление не заменяет запись, сделанную во время чтения
+     * из базы данных (например, @CachePut обновления заказа), и не ставит отметку на ненайденный заказ,
+     * который может создаваться параллельно.
+     */
+    @Test
+    void testRefreshDoesNotOverwriteNewerWrite() {
+        // Arrange
+        UUID orderId = UUID.randomUUID();
+        UUID createdId = UUID.randomUUID();
+        OrderResponse stale = new OrderResponse(orderId, "alice", List.of(), BigDecimal.ONE, Order.Status.PENDING);
+        OrderResponse newer = new OrderResponse(orderId, "alice", List.of(), BigDecimal.TEN, Order.Status.CONFIRMED);
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+        OrderService orderService = cachingOrderService(cacheManager);
+        OrderTombstones orderTombstones = new OrderTombstones(cacheManager, new SimpleMeterRegistry());
+        Cache cache = cacheManager.getCache(OrderCacheKeys.CACHE_NAME);
+        cache.put(orderId, stale);
+        when(orderRepository.findResponseById(orderId)).thenAnswer(invocation -> {
+            cache.put(orderId, newer); // Параллельное обновление записывает новое значение во время чтения
+            return Optional.of(stale);
+        });
+        when(orderRepository.findResponseById(createdId)).thenReturn(Optional.empty());
+
+        // Act
+        orderService.refreshOrderResponse(orderId);
+        orderService.refreshOrderResponse(createdId);
+
+        // Assert
+        assertEquals(newer, cache.get(orderId).get());
+        assertFalse(orderTombstones.contains(createdId));
+    }
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Создаёт OrderService с настоящим кэшем в памяти вместо Redis.
+     */
+    private OrderService cachingOrderService() {
+        return cachingOrderService(new ConcurrentMapCacheManager());
+    }
+
+    private OrderService cachingOrderService(ConcurrentMapCacheManager cacheManager) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new OrderService(
+                orderRepository,
+                new UserService(null), // Имя и роли берутся из SecurityContext, кэш пользователей не нужен
+                new CustomMetrics(meterRegistry),
+                new OrderCacheKeys(new LocalCacheVersionStore()),
+                cacheManager,
+                new RequestCoalescer(null, meterRegistry,
+                        new RedisCircuitBreaker(meterRegistry, 5, Duration.ofSeconds(10), Duration.ofMillis(500)), false, Duration.ofSeconds(2)),
+                new OrderTombstones(cacheManager, meterRegistry));
+    }
+
+    private static void authenticate(String username, String role) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                username, null, List.of(new SimpleGrantedAuthority("ROLE_" + role))));
+    }
 }
@@ -0,0 +1,94 @@
+package kz.bars.order_service.infrastructure.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import kz.bars.order_service.domain.models.Order;
+import kz.bars.order_service.presentation.dto.OrderResponse;
+import kz.bars.order_service.presentation.dto.ProductResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactRedisSerializerTest {
+
+    private final GenericJackson2JsonRedisSerializer jsonSerializer = jsonSerializer();
+    private final CompactRedisSerializer compactSerializer = new CompactRedisSerializer(jsonSerializer);
+
+    /**
+     * Этот тест проверяет, что OrderResponse и список OrderResponse
+     * восстанавливаются из компактного формата без потерь.
+     */
+    @Test
+    void testRoundTripOrderResponses() {
+        // Arrange
+        OrderResponse response = orderResponse(3);
+        List<OrderResponse> responses = List.of(response, orderResponse(2));
+
+        // Act
+        Object restoredResponse = compactSerializer.deserialize(compactSerializer.serialize(response));
+        Object restoredResponses = compactSerializer.deserialize(compactSerializer.serialize(responses));
+
+        // Assert
+        assertEquals(response, restoredResponse);
+        assertEquals(responses, restoredResponses);
+    }
+
+    /**
+     * Этот тест проверяет, что значения, записанные ранее в JSON без типа,
+     * считаются промахом кэша, а не возвращаются в виде LinkedHashMap.
+     */
+    @Test
+    void testLegacyJsonIsTreatedAsMiss() {
+        // Arrange
+        OrderResponse response = orderResponse(1);
+        byte[] legacy = jsonSerializer.serialize(response);
+
+        // Act
+        Object restored = compactSerializer.deserialize(legacy);
+
+        // Assert
+        assertNull(restored);
+    }
+
+    /**
+     * Сравнение размера значения с текущим JSON форматом.
+     * Время кодирования и декодирования зависит от машины и в тесте не проверяется.
+     */
+    @Test
+    void testCompactFormatIsSmallerThanJson() {
+        // Arrange
+        List<OrderResponse> responses = IntStream.range(0, 20)
+                .mapToObj(i -> orderResponse(5))
+                .toList();
+
+        // Act
+        int jsonSize = jsonSerializer.serialize(responses).length;
+        int compactSize = compactSerializer.serialize(responses).length;
+
+        // Assert
+        assertTrue(compactSize < jsonSize * 0.75, "Compact value should be at least 25% smaller than JSON");
+    }
+
+    private static OrderResponse orderResponse(int productCount) {
+        List<ProductResponse> products = IntStream.range(0, productCount)
+                .mapToObj(i -> new ProductResponse(UUID.randomUUID(), "Product " + i, new BigDecimal("1999.99"), i + 1))
+                .toList();
+        return new OrderResponse(UUID.randomUUID(), "John Doe", products, new BigDecimal("9999.95"), Order.Status.PENDING);
+    }
+
+    private static GenericJackson2JsonRedisSerializer jsonSerializer() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return new GenericJackson2JsonRedisSerializer(objectMapper);
+    }
+}
@@ -0,0 +1,56 @@
+package kz.bars.order_service.infrastructure.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotKeyTrackerTest {
+
+    /**
+     * Этот тест проверяет, что самые частые ключи попадают в top-K в порядке убывания частоты,
+     * а редкие ключи вытесняются.
+     */
+    @Test
+    void testTopKeysAreOrderedByFrequency() {
+        // Arrange
+        HotKeyTracker tracker = new HotKeyTracker(1024, 4, 2);
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            tracker.record("orderResponses", "hot");
+        }
+        for (int i = 0; i < 20; i++) {
+            tracker.record("orderResponses", "warm");
+        }
+        for (int i = 0; i < 100; i++) {
+            tracker.record("orderResponses", "cold-" + i); // Каждый редкий ключ встречается один раз
+        }
+        List<HotKeyTracker.HotKey> top = tracker.top("orderResponses", 10);
+
+        // Assert
+        assertEquals(List.of("hot", "warm"), top.stream().map(HotKeyTracker.HotKey::key).toList());
+        assertTrue(tracker.estimate("orderResponses", "hot") >= 50);
+    }
+
+    /**
+     * Этот тест проверяет, что затухание уменьшает оценки вдвое.
+     */
+    @Test
+    void testDecayHalvesEstimates() {
+        // Arrange
+        HotKeyTracker tracker = new HotKeyTracker(1024, 4, 10);
+        for (int i = 0; i < 40; i++) {
+            tracker.record("orderResponses", "hot");
+        }
+
+        // Act
+        tracker.decay();
+
+        // Assert
+        assertEquals(20, tracker.estimate("orderResponses", "hot"));
+        assertEquals(20, tracker.top("orderResponses", 1).get(0).count());
+    }
+}
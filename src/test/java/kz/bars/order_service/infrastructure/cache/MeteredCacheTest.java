@@ -0,0 +1,37 @@
+package kz.bars.order_service.infrastructure.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MeteredCacheTest {
+
+    /**
+     * Этот тест проверяет, что попадания, промахи, записи и удаления учитываются по имени кэша,
+     * а чтения попадают в отчёт о популярных ключах.
+     */
+    @Test
+    void testCountsOperationsPerCache() {
+        // Arrange
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        HotKeyTracker hotKeyTracker = new HotKeyTracker(1024, 4, 10);
+        MeteredCache cache = new MeteredCache(new ConcurrentMapCache("orderResponses"), meterRegistry, hotKeyTracker);
+
+        // Act
+        cache.get("order-1"); // Промах
+        cache.put("order-1", "value");
+        cache.get("order-1"); // Попадание
+        cache.get("order-2", () -> "loaded"); // Промах с загрузкой
+        cache.evict("order-1");
+
+        // Assert
+        assertEquals(1, meterRegistry.counter("cache.requests", "cache", "orderResponses", "result", "hit").count());
+        assertEquals(2, meterRegistry.counter("cache.requests", "cache", "orderResponses", "result", "miss").count());
+        assertEquals(1, meterRegistry.counter("cache.writes", "cache", "orderResponses", "operation", "put").count());
+        assertEquals(1, meterRegistry.counter("cache.writes", "cache", "orderResponses", "operation", "evict").count());
+        assertEquals(3, meterRegistry.timer("cache.latency", "cache", "orderResponses", "operation", "get").count());
+        assertEquals("order-1", hotKeyTracker.top("orderResponses", 1).get(0).key());
+    }
+}
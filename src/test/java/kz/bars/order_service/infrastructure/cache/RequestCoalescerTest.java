@@ -0,0 +1,145 @@
+package kz.bars.order_service.infrastructure.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kz.bars.order_service.infrastructure.resilience.RedisCircuitBreaker;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestCoalescer requestCoalescer = new RequestCoalescer(null, meterRegistry,
+            new RedisCircuitBreaker(meterRegistry, 5, Duration.ofSeconds(10), Duration.ofMillis(500)), false, Duration.ofSeconds(2));
+    private final ConcurrentMapCache cache = new ConcurrentMapCache("orderResponses");
+
+    /**
+     * Этот тест проверяет, что одновременные промахи по одному ключу
+     * выполняют загрузчик один раз, а остальные запросы получают его результат.
+     */
+    @Test
+    void testConcurrentMissesRunLoaderOnce() throws Exception {
+        // Arrange
+        int callers = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        // Act
+        Future<?>[] results = new Future<?>[callers];
+        for (int i = 0; i < callers; i++) {
+            results[i] = executor.submit(() -> requestCoalescer.get(cache, "order-1", () -> {
+                loads.incrementAndGet();
+                await(release); // Держим загрузку, пока остальные запросы не присоединятся
+                return "value";
+            }));
+        }
+        while (meterRegistry.counter("cache.coalescing.requests", "cache", "orderResponses", "result", "coalesced").count() < callers - 1) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        // Assert
+        for (Future<?> result : results) {
+            assertEquals("value", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals("value", cache.get("order-1", String.class));
+        executor.shutdownNow();
+    }
+
+    /**
+     * Этот тест проверяет, что Error загрузчика освобождает ожидающие запросы:
+     * они получают ту же ошибку, а не блокируются навсегда.
+     */
+    @Test
+    void testLoaderErrorReleasesFollowers() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // Act
+        Future<?> leader = executor.submit(() -> requestCoalescer.get(cache, "order-1", () -> {
+            await(release);
+            throw new StackOverflowError("loader failed");
+        }));
+        Future<?> follower = submitFollower(executor, "value");
+        while (meterRegistry.counter("cache.coalescing.requests", "cache", "orderResponses", "result", "coalesced").count() < 1) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        // Assert
+        assertInstanceOf(StackOverflowError.class, assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS)).getCause());
+        assertInstanceOf(StackOverflowError.class, assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS)).getCause());
+        executor.shutdownNow();
+    }
+
+    /**
+     * Этот тест проверяет, что запрос, не дождавшийся зависшего лидера за lockTimeout,
+     * загружает значение сам.
+     */
+    @Test
+    void testFollowerLoadsItselfAfterTimeout() throws Exception {
+        // Arrange
+        RequestCoalescer shortTimeout = new RequestCoalescer(null, meterRegistry,
+                new RedisCircuitBreaker(meterRegistry, 5, Duration.ofSeconds(10), Duration.ofMillis(500)), false, Duration.ofMillis(100));
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // Act
+        Future<?> leader = executor.submit(() -> shortTimeout.get(cache, "order-1", () -> {
+            await(release); // Лидер зависает дольше lockTimeout
+            return "leader";
+        }));
+        Future<?> follower = executor.submit(() -> {
+            while (leaderLoads() == 0) {
+                Thread.onSpinWait();
+            }
+            return shortTimeout.get(cache, "order-1", () -> "follower");
+        });
+
+        // Assert
+        assertEquals("follower", follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.counter("cache.coalescing.requests", "cache", "orderResponses", "result", "timeout").count());
+        release.countDown();
+        assertEquals("leader", leader.get(5, TimeUnit.SECONDS));
+        executor.shutdownNow();
+    }
+
+    /**
+     * Запускает запрос, который присоединяется к уже начатой загрузке ключа order-1.
+     */
+    private Future<?> submitFollower(ExecutorService executor, String value) {
+        return executor.submit(() -> {
+            while (leaderLoads() == 0) {
+                Thread.onSpinWait();
+            }
+            return requestCoalescer.get(cache, "order-1", () -> value);
+        });
+    }
+
+    private double leaderLoads() {
+        return meterRegistry.counter("cache.coalescing.requests", "cache", "orderResponses", "result", "loaded").count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
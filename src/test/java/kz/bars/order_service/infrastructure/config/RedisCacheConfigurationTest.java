@@ -0,0 +1,202 @@
+package kz.bars.order_service.infrastructure.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kz.bars.order_service.domain.models.Order;
+import kz.bars.order_service.infrastructure.cache.HotKeyTracker;
+import kz.bars.order_service.infrastructure.cache.OrderCacheKeys;
+import kz.bars.order_service.infrastructure.cache.OrderTombstones;
+import kz.bars.order_service.infrastructure.cache.TwoLevelCacheManager;
+import kz.bars.order_service.infrastructure.resilience.RedisCircuitBreaker;
+import kz.bars.order_service.presentation.dto.OrderResponse;
+import kz.bars.order_service.presentation.dto.ProductResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тесты настроек кэшей Redis из RedisConfig: менеджер строится так же, как в приложении,
+ * но с замоканным RedisCacheWriter вместо подключения к Redis.
+ */
+class RedisCacheConfigurationTest {
+
+    private final RedisCacheWriter cacheWriter = mock(RedisCacheWriter.class);
+    private final HotKeyTracker hotKeyTracker = new HotKeyTracker(1024, 4, 10);
+    private final RedisConfig redisConfig = new RedisConfig();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(redisConfig, "defaultTtl", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(redisConfig, "orderResponsesTtl", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(redisConfig, "orderResponsesHotTtl", Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(redisConfig, "orderResponsesHotThreshold", 20L);
+        ReflectionTestUtils.setField(redisConfig, "tombstoneTtl", Duration.ofSeconds(30));
+    }
+
+    /**
+     * Этот тест проверяет, что кэши получают собственные настройки, а не конфигурацию по умолчанию:
+     * orderResponses - компактный формат и TTL обычной записи, orderTombstones - короткий TTL.
+     */
+    @Test
+    void testCachesUseOwnConfiguration() {
+        // Arrange
+        RedisCacheManager cacheManager = redisConfig.redisCacheManager(cacheWriter, hotKeyTracker, Set.of(OrderCacheKeys.CACHE_NAME));
+
+        // Act
+        RedisCacheConfiguration orderResponses = cacheConfiguration(cacheManager, OrderCacheKeys.CACHE_NAME);
+        RedisCacheConfiguration tombstones = cacheConfiguration(cacheManager, OrderTombstones.CACHE_NAME);
+
+        // Assert
+        assertEquals(Duration.ofMinutes(10), orderResponses.getTtlFunction().getTimeToLive("order-1", "value"));
+        assertEquals(Duration.ofSeconds(30), tombstones.getTtlFunction().getTimeToLive("order-1", Boolean.TRUE));
+        assertEquals(1, orderResponses.getValueSerializationPair().write(orderResponse()).get(0)); // Заголовок компактного формата
+        assertEquals('"', tombstones.getValueSerializationPair().write("marker").get(0)); // JSON
+    }
+
+    /**
+     * Этот тест проверяет, что OrderResponse и список OrderResponse, записанные в orderResponses,
+     * читаются обратно с исходным типом, а не в виде LinkedHashMap.
+     */
+    @Test
+    void testOrderResponsesRoundTripKeepsType() {
+        // Arrange
+        RedisCacheManager cacheManager = redisConfig.redisCacheManager(cacheWriter, hotKeyTracker, Set.of(OrderCacheKeys.CACHE_NAME));
+        RedisCacheConfiguration configuration = cacheConfiguration(cacheManager, OrderCacheKeys.CACHE_NAME);
+        OrderResponse response = orderResponse();
+
+        // Act
+        Object restoredResponse = configuration.getValueSerializationPair()
+                .read(configuration.getValueSerializationPair().write(response));
+        Object restoredResponses = configuration.getValueSerializationPair()
+                .read(configuration.getValueSerializationPair().write(List.of(response)));
+
+        // Assert
+        OrderResponse restored = assertInstanceOf(OrderResponse.class, restoredResponse);
+        assertEquals(response, restored);
+        assertInstanceOf(OrderResponse.class, assertInstanceOf(List.class, restoredResponses).get(0));
+    }
+
+    /**
+     * Этот тест проверяет двухуровневый кэш поверх настоящего RedisCacheManager:
+     * заказ, записанный одним узлом, читается другим узлом (пустой L1) из Redis как OrderResponse.
+     */
+    @Test
+    void testTwoLevelCacheReadsOrderResponseWrittenByAnotherNode() {
+        // Arrange
+        Map<String, byte[]> redis = inMemoryRedis();
+        TwoLevelCacheManager writerNode = twoLevelCacheManager();
+        TwoLevelCacheManager readerNode = twoLevelCacheManager();
+        OrderResponse response = orderResponse();
+
+        // Act
+        writerNode.getCache(OrderCacheKeys.CACHE_NAME).put(response.getOrderId(), response);
+        Cache.ValueWrapper restored = readerNode.getCache(OrderCacheKeys.CACHE_NAME).get(response.getOrderId());
+
+        // Assert
+        assertEquals(1, redis.size());
+        assertEquals(response, assertInstanceOf(OrderResponse.class, restored.get()));
+    }
+
+    /**
+     * Этот тест проверяет, что отметка о несуществующем заказе записывается в Redis
+     * с коротким TTL orderTombstones, а не с TTL по умолчанию.
+     */
+    @Test
+    void testTombstonesAreWrittenWithShortTtl() {
+        // Arrange
+        OrderTombstones orderTombstones = new OrderTombstones(twoLevelCacheManager(), new SimpleMeterRegistry());
+
+        // Act
+        orderTombstones.put(UUID.randomUUID());
+
+        // Assert
+        verify(cacheWriter).put(eq(OrderTombstones.CACHE_NAME), any(byte[].class), any(byte[].class), eq(Duration.ofSeconds(30)));
+    }
+
+    /**
+     * Этот тест проверяет адаптивный TTL orderResponses через настоящий менеджер:
+     * популярный ключ (не меньше порога чтений) записывается с увеличенным TTL, редкий - с обычным.
+     */
+    @Test
+    void testHotOrderResponsesGetLongerTtl() {
+        // Arrange
+        Map<String, byte[]> redis = inMemoryRedis();
+        Cache cache = twoLevelCacheManager().getCache(OrderCacheKeys.CACHE_NAME);
+        for (int i = 0; i < 25; i++) {
+            cache.get("hot"); // Чтения учитываются в HotKeyTracker
+        }
+        cache.get("cold");
+
+        // Act
+        cache.put("hot", orderResponse());
+        cache.put("cold", orderResponse());
+
+        // Assert
+        verify(cacheWriter).put(eq(OrderCacheKeys.CACHE_NAME), eq(redisKey("hot")), any(byte[].class), eq(Duration.ofMinutes(30)));
+        verify(cacheWriter).put(eq(OrderCacheKeys.CACHE_NAME), eq(redisKey("cold")), any(byte[].class), eq(Duration.ofMinutes(10)));
+        assertEquals(2, redis.size());
+    }
+
+    /**
+     * Двухуровневый менеджер кэшей, как в RedisConfig.cacheManager, с общим замоканным writer Redis.
+     */
+    private TwoLevelCacheManager twoLevelCacheManager() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        @SuppressWarnings("unchecked")
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        RedisCircuitBreaker circuitBreaker = new RedisCircuitBreaker(meterRegistry, 5, Duration.ofSeconds(10), Duration.ofSeconds(5));
+        RedisCacheManager redisCacheManager = redisConfig.redisCacheManager(cacheWriter, hotKeyTracker, Set.of(OrderCacheKeys.CACHE_NAME));
+        return new TwoLevelCacheManager(redisCacheManager, redisTemplate, meterRegistry, hotKeyTracker,
+                circuitBreaker, Set.of(OrderCacheKeys.CACHE_NAME), Duration.ofMinutes(1), 100);
+    }
+
+    /**
+     * Хранит записи замоканного writer в памяти по ключу Redis.
+     */
+    private Map<String, byte[]> inMemoryRedis() {
+        Map<String, byte[]> redis = new ConcurrentHashMap<>();
+        doAnswer(invocation -> redis.put(new String(invocation.getArgument(1, byte[].class), StandardCharsets.UTF_8),
+                invocation.getArgument(2, byte[].class)))
+                .when(cacheWriter).put(anyString(), any(byte[].class), any(byte[].class), any());
+        when(cacheWriter.get(anyString(), any(byte[].class)))
+                .thenAnswer(invocation -> redis.get(new String(invocation.getArgument(1, byte[].class), StandardCharsets.UTF_8)));
+        return redis;
+    }
+
+    private static byte[] redisKey(String key) {
+        return (OrderCacheKeys.CACHE_NAME + "::" + key).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static RedisCacheConfiguration cacheConfiguration(RedisCacheManager cacheManager, String name) {
+        return ((RedisCache) cacheManager.getCache(name)).getCacheConfiguration();
+    }
+
+    private static OrderResponse orderResponse() {
+        List<ProductResponse> products = List.of(new ProductResponse(UUID.randomUUID(), "Product A", new BigDecimal("19.99"), 2));
+        return new OrderResponse(UUID.randomUUID(), "John Doe", products, new BigDecimal("39.98"), Order.Status.PENDING);
+    }
+}
@@ -1,5 +1,7 @@
 package kz.bars.order_service.infrastructure.config;
 
+import kz.bars.order_service.infrastructure.cache.CacheVersionStore;
+import kz.bars.order_service.infrastructure.cache.LocalCacheVersionStore;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.support.NoOpCacheManager;
 import org.springframework.context.annotation.Bean;
@@ -24,4 +26,16 @@ public class RedisConfigTest {
     public CacheManager cacheManager() {
         return new NoOpCacheManager(); // Отключение кэша для тестов
     }
+
+    /**
+     * Хранилище версий кэшированных выборок для тестов.
+     *
+     * Версии хранятся в памяти, так как Redis в тестах недоступен.
+     *
+     * @return LocalCacheVersionStore
+     */
+    @Bean
+    public CacheVersionStore cacheVersionStore() {
+        return new LocalCacheVersionStore();
+    }
 }
@@ -1,8 +1,10 @@
 package kz.bars.order_service.infrastructure.config;
 
-import kz.bars.order_service.domain.repositories.UserRepository;
+import io.jsonwebtoken.Jwts;
+import kz.bars.order_service.infrastructure.cache.UserCache;
 import kz.bars.order_service.infrastructure.security.CustomUserDetailsService;
 import kz.bars.order_service.infrastructure.security.JwtTokenProvider;
+import kz.bars.order_service.infrastructure.security.VerifiedToken;
 import org.mockito.Mockito;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
@@ -32,21 +34,25 @@ public class SecurityConfigTest {
         // Возвращает предопределённое имя пользователя при запросе через токен
         Mockito.when(mockProvider.getUsername(Mockito.anyString())).thenReturn("test-user");
 
+        // Возвращает проверенный токен с предопределённым именем пользователя
+        Mockito.when(mockProvider.parseToken(Mockito.anyString())).thenAnswer(invocation ->
+                new VerifiedToken(invocation.getArgument(0), Jwts.claims().setSubject("test-user")));
+
         return mockProvider;
     }
 
     /**
      * Тестовый бин для CustomUserDetailsService.
      *
-     * Этот бин подключает CustomUserDetailsService, который использует тестовый
-     * UserRepository. Это позволяет проверять логику авторизации и аутентификации
+     * Этот бин подключает CustomUserDetailsService, который использует кэш пользователей
+     * поверх тестового UserRepository. Это позволяет проверять логику авторизации и аутентификации
      * в тестовом окружении.
      *
-     * @param userRepository Реальный или мокированный UserRepository.
+     * @param userCache Кэш пользователей поверх реального или мокированного UserRepository.
      * @return Экземпляр CustomUserDetailsService для тестов.
      */
     @Bean
-    public CustomUserDetailsService customUserDetailsService(UserRepository userRepository) {
-        return new CustomUserDetailsService(userRepository);
+    public CustomUserDetailsService customUserDetailsService(UserCache userCache) {
+        return new CustomUserDetailsService(userCache);
     }
 }
@@ -0,0 +1,61 @@
+package kz.bars.order_service.infrastructure.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RedisCircuitBreakerTest {
+
+    /**
+     * Этот тест проверяет, что после порога ошибок выключатель размыкается
+     * и обращения к Redis больше не выполняются, а сразу используется запасной вариант.
+     */
+    @Test
+    void testOpensAfterFailureThreshold() {
+        // Arrange
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RedisCircuitBreaker circuitBreaker = new RedisCircuitBreaker(meterRegistry, 2, Duration.ofMinutes(1), Duration.ofSeconds(5));
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            circuitBreaker.execute("test", () -> {
+                calls.incrementAndGet();
+                throw new RedisConnectionFailureException("Connection refused");
+            }, () -> "fallback");
+        }
+
+        // Assert
+        assertEquals(RedisCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(2, calls.get()); // После размыкания Redis не вызывается
+        assertEquals(5, meterRegistry.counter("redis.circuit.fallbacks", "operation", "test").count());
+    }
+
+    /**
+     * Этот тест проверяет, что по истечении паузы успешный пробный вызов замыкает выключатель
+     * и запускает обработчики восстановления.
+     */
+    @Test
+    void testClosesAfterSuccessfulTrialAndNotifiesRecovery() {
+        // Arrange
+        RedisCircuitBreaker circuitBreaker = new RedisCircuitBreaker(new SimpleMeterRegistry(), 1, Duration.ZERO, Duration.ofSeconds(5));
+        AtomicInteger recoveries = new AtomicInteger();
+        circuitBreaker.onRecovery(recoveries::incrementAndGet);
+        circuitBreaker.run("test", () -> {
+            throw new RedisConnectionFailureException("Connection refused");
+        }, () -> { });
+
+        // Act
+        String result = circuitBreaker.execute("test", () -> "redis", () -> "fallback");
+
+        // Assert
+        assertEquals("redis", result);
+        assertEquals(RedisCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(1, recoveries.get());
+    }
+}
@@ -1,5 +1,7 @@
 package kz.bars.order_service.presentation.controllers;
 
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
 import kz.bars.order_service.OrderServiceApplication;
 import kz.bars.order_service.builder.OrderTestBuilder;
 import kz.bars.order_service.builder.ProductTestBuilder;
@@ -10,6 +12,8 @@ import kz.bars.order_service.domain.repositories.UserRepository;
 import kz.bars.order_service.infrastructure.config.RedisConfigTest;
 import kz.bars.order_service.infrastructure.config.SecurityConfigTest;
 import lombok.extern.log4j.Log4j2;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -23,8 +27,13 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
+import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -49,6 +58,9 @@ class OrderControllerTest {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @BeforeEach
     void setUp() {
         orderRepository.deleteAll(); // Очищаем базу данных перед каждым тестом
@@ -84,6 +96,40 @@ class OrderControllerTest {
                 .andExpect(jsonPath("$.totalPrice").value(200));
     }
 
+    /**
+     * Тест проверяет пакетное создание заказов через POST-запрос.
+     * Некорректный заказ отклоняется с ошибками, остальные заказы пакета сохраняются.
+     */
+    @Test
+    @WithMockUser(username = "testuser")
+    void testCreateOrdersBatch() throws Exception {
+        // Arrange
+        String requestContent = """
+            {
+                "orders": [
+                    {"products": [{"name": "Product A", "price": 100, "quantity": 2}]},
+                    {"products": [{"name": "", "price": -1, "quantity": 1}]},
+                    {"products": [{"name": "Product B", "price": 50, "quantity": 1}]}
+                ]
+            }
+        """;
+
+        // Act & Assert
+        mockMvc.perform(post("/orders/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestContent))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.items[0].totalPrice").value(200))
+                .andExpect(jsonPath("$.items[1].index").value(1))
+                .andExpect(jsonPath("$.items[1].orderId").doesNotExist())
+                .andExpect(jsonPath("$.items[1].errors.length()").value(2))
+                .andExpect(jsonPath("$.items[2].totalPrice").value(50));
+
+        assertEquals(2, orderRepository.count());
+    }
+
     /**
      * Тест проверяет обновление заказа через PUT-запрос.
      * Убедитесь, что заказ обновляется корректно с указанными данными.
@@ -138,6 +184,53 @@ class OrderControllerTest {
                 .andExpect(jsonPath("$.totalPrice").value(150.0)); // Проверяем общую стоимость заказа
     }
 
+    /**
+     * Тест проверяет, что обновление заказа применяет к продуктам только разницу:
+     * переданная строка изменяется на месте и сохраняет ID, отсутствующая удаляется, новая добавляется.
+     */
+    @Test
+    @WithMockUser(username = "testuser")
+    void testUpdateOrderAppliesProductDiff() throws Exception {
+        // Arrange
+        String createRequestContent = """
+            {
+                "products": [
+                    {"name": "Product A", "price": 100, "quantity": 2},
+                    {"name": "Product B", "price": 50, "quantity": 1}
+                ]
+            }
+        """;
+        String created = mockMvc.perform(post("/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(createRequestContent))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String orderId = JsonPath.read(created, "$.orderId");
+        List<String> productAIds = JsonPath.read(created, "$.products[?(@.name == 'Product A')].productId");
+        String productAId = productAIds.get(0);
+
+        String updateRequestContent = """
+            {
+                "products": [
+                    {"productId": "%s", "name": "Product A", "price": 100, "quantity": 5},
+                    {"name": "Product C", "price": 10, "quantity": 3}
+                ]
+            }
+        """.formatted(productAId);
+
+        // Act & Assert
+        mockMvc.perform(put("/orders/" + orderId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(updateRequestContent))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.length()").value(2))
+                .andExpect(jsonPath("$.products[0].productId").value(productAId)) // Строка изменена на месте
+                .andExpect(jsonPath("$.products[0].quantity").value(5))
+                .andExpect(jsonPath("$.products[1].name").value("Product C"))
+                .andExpect(jsonPath("$.products[1].productId").isNotEmpty())
+                .andExpect(jsonPath("$.totalPrice").value(530));
+    }
+
     /**
      * Тест проверяет удаление заказа через DELETE-запрос.
      * Убедитесь, что заказ помечается как удалённый.
@@ -179,6 +272,75 @@ class OrderControllerTest {
         assertTrue(foundOrder.isDeleted()); // Проверка флага isDeleted
     }
 
+    /**
+     * Тест проверяет пакетное мягкое удаление: пользователь удаляет только собственные заказы,
+     * чужой заказ пропускается и не учитывается в количестве удалённых.
+     */
+    @Test
+    @WithMockUser(username = "testuser")
+    void testDeleteOrdersInBulk() throws Exception {
+        // Arrange
+        Order own = saveOrder("testuser", Order.Status.PENDING);
+        Order foreign = saveOrder("otheruser", Order.Status.PENDING);
+        String requestContent = """
+            {"orderIds": ["%s", "%s"]}
+        """.formatted(own.getOrderId(), foreign.getOrderId());
+
+        // Act & Assert
+        mockMvc.perform(post("/orders/bulk/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestContent))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(2))
+                .andExpect(jsonPath("$.affected").value(1));
+
+        assertTrue(orderRepository.findById(own.getOrderId()).orElseThrow().isDeleted());
+        assertFalse(orderRepository.findById(foreign.getOrderId()).orElseThrow().isDeleted());
+    }
+
+    /**
+     * Тест проверяет, что пакетные запросы проверяются через @Valid:
+     * пустой список ID и отсутствующий статус отклоняются с 400.
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testBulkRequestsAreValidated() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/orders/bulk/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orderIds\": []}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/orders/bulk/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orderIds\": [\"%s\"], \"toStatus\": \"CONFIRMED\"}".formatted(UUID.randomUUID())))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Тест проверяет пакетную смену статуса: изменяются только заказы в ожидаемом статусе.
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testUpdateOrdersStatusInBulk() throws Exception {
+        // Arrange
+        Order pending = saveOrder("testuser", Order.Status.PENDING);
+        Order cancelled = saveOrder("testuser", Order.Status.CANCELLED);
+        String requestContent = """
+            {"orderIds": ["%s", "%s"], "fromStatus": "PENDING", "toStatus": "CONFIRMED"}
+        """.formatted(pending.getOrderId(), cancelled.getOrderId());
+
+        // Act & Assert
+        mockMvc.perform(post("/orders/bulk/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestContent))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(2))
+                .andExpect(jsonPath("$.affected").value(1));
+
+        assertEquals(Order.Status.CONFIRMED, orderRepository.findById(pending.getOrderId()).orElseThrow().getStatus());
+        assertEquals(Order.Status.CANCELLED, orderRepository.findById(cancelled.getOrderId()).orElseThrow().getStatus());
+    }
+
     /**
      * Тест проверяет получение заказа по его ID через GET-запрос.
      * Убедитесь, что возвращается корректный заказ.
@@ -304,6 +466,158 @@ class OrderControllerTest {
                         .param("min_price", minPrice.equals("null") ? "" : minPrice) // Если статус null, не передаем параметр
                         .param("max_price", maxPrice.equals("null") ? "" : maxPrice)) // Если статус null, не передаем параметр
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(expectedCount)); // Проверяем количество заказов
+                .andExpect(jsonPath("$.items.length()").value(expectedCount)); // Проверяем количество заказов
+    }
+
+    /**
+     * Тест проверяет постраничную выборку заказов по курсору.
+     * Убедитесь, что страницы не пересекаются, а у последней страницы нет курсора.
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testGetOrdersByCursor() throws Exception {
+        // Arrange
+        for (int i = 1; i <= 3; i++) {
+            Product product = ProductTestBuilder.builder()
+                    .name("Product " + i)
+                    .price(BigDecimal.valueOf(100L * i))
+                    .quantity(1)
+                    .build()
+                    .toProduct();
+
+            Order order = OrderTestBuilder.builder()
+                    .customerName("user" + i)
+                    .products(List.of(product))
+                    .build()
+                    .toOrder();
+
+            product.setOrder(order);
+            order.calculateTotalPrice();
+            orderRepository.save(order);
+        }
+
+        // Act & Assert
+        String firstPage = mockMvc.perform(get("/orders")
+                        .param("sort", "TOTAL_PRICE")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].totalPrice").value(100.0))
+                .andExpect(jsonPath("$.items[1].totalPrice").value(200.0))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+
+        String cursor = JsonPath.read(firstPage, "$.nextCursor");
+
+        mockMvc.perform(get("/orders")
+                        .param("sort", "TOTAL_PRICE")
+                        .param("limit", "2")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].totalPrice").value(300.0))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    /**
+     * Тест проверяет, что подделанный курсор сортировки по цене без цены отклоняется с 400, а не 500.
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testGetOrdersRejectsCursorWithoutPrice() throws Exception {
+        // Arrange
+        String cursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("TOTAL_PRICE||" + UUID.randomUUID()).getBytes(StandardCharsets.UTF_8));
+
+        // Act & Assert
+        mockMvc.perform(get("/orders")
+                        .param("sort", "TOTAL_PRICE")
+                        .param("cursor", cursor))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Тест проверяет, что количество SQL-запросов выборки заказов не зависит от количества заказов на странице
+     * (нет отдельного запроса продуктов на каждый заказ).
+     */
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testOrderListingStatementCountIsConstant() throws Exception {
+        // Arrange
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        saveOrders(2);
+
+        // Act
+        statistics.clear();
+        mockMvc.perform(get("/orders").param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2));
+        long statementsForTwoOrders = statistics.getPrepareStatementCount();
+
+        saveOrders(18);
+        statistics.clear();
+        mockMvc.perform(get("/orders").param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(20))
+                .andExpect(jsonPath("$.items[19].products.length()").value(2));
+        long statementsForTwentyOrders = statistics.getPrepareStatementCount();
+
+        // Assert
+        assertEquals(statementsForTwoOrders, statementsForTwentyOrders);
+    }
+
+    /**
+     * Сохраняет заказ указанного клиента с одним продуктом и заданным статусом.
+     */
+    private Order saveOrder(String customerName, Order.Status status) {
+        Product product = ProductTestBuilder.builder()
+                .name("Product A")
+                .price(BigDecimal.valueOf(10))
+                .quantity(1)
+                .build()
+                .toProduct();
+
+        Order order = OrderTestBuilder.builder()
+                .customerName(customerName)
+                .status(status)
+                .products(List.of(product))
+                .build()
+                .toOrder();
+
+        product.setOrder(order);
+        order.calculateTotalPrice();
+        return orderRepository.save(order);
+    }
+
+    /**
+     * Сохраняет заказы с двумя продуктами каждый.
+     */
+    private void saveOrders(int count) {
+        for (int i = 0; i < count; i++) {
+            Product first = ProductTestBuilder.builder()
+                    .name("Product A")
+                    .price(BigDecimal.valueOf(10))
+                    .quantity(1)
+                    .build()
+                    .toProduct();
+
+            Product second = ProductTestBuilder.builder()
+                    .name("Product B")
+                    .price(BigDecimal.valueOf(20))
+                    .quantity(1)
+                    .build()
+                    .toProduct();
+
+            Order order = OrderTestBuilder.builder()
+                    .customerName("user" + i)
+                    .products(List.of(first, second))
+                    .build()
+                    .toOrder();
+
+            first.setOrder(order);
+            second.setOrder(order);
+            order.calculateTotalPrice();
+            orderRepository.save(order);
+        }
     }
 }